@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.benchmark;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes minimal but valid class files.
+ */
+final class ClassFileWriter {
+    private static final int UTF8 = 1;
+    private static final int CLASS = 7;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    private final DataOutputStream body = new DataOutputStream(bodyBytes);
+    private int poolSize = 1;
+
+    int utf8(String s) throws IOException {
+        final Integer index = entries.get("U" + s);
+        if (index != null) {
+            return index;
+        }
+        pool.writeByte(UTF8);
+        pool.writeUTF(s);
+        entries.put("U" + s, poolSize);
+        return poolSize++;
+    }
+
+    int clazz(String internalName) throws IOException {
+        final Integer index = entries.get("C" + internalName);
+        if (index != null) {
+            return index;
+        }
+        final int name = utf8(internalName);
+        pool.writeByte(CLASS);
+        pool.writeShort(name);
+        entries.put("C" + internalName, poolSize);
+        return poolSize++;
+    }
+
+    /**
+     * @return the stream to write everything after the constant pool to.
+     */
+    DataOutputStream body() {
+        return body;
+    }
+
+    byte[] toByteArray() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(poolBytes.size() + bodyBytes.size() + 10);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+        out.writeShort(poolSize);
+        poolBytes.writeTo(out);
+        bodyBytes.writeTo(out);
+        return bytes.toByteArray();
+    }
+}
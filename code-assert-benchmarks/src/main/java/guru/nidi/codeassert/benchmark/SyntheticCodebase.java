@@ -0,0 +1,405 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.benchmark;
+
+import guru.nidi.codeassert.config.Language;
+import guru.nidi.codeassert.dependency.DependencyRule;
+import guru.nidi.codeassert.dependency.DependencyRules;
+import guru.nidi.codeassert.model.Model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Generates a synthetic code base of any size.
+ * The packages are grouped into layers and every class uses classes in the same or in lower layers,
+ * so the classes and packages are free of cycles unless a cycle density is set.
+ * The same configuration always generates the same code base.
+ * It can be written as class files, as a jar or as a java or kotlin source tree.
+ */
+public class SyntheticCodebase {
+    public static final String BASE_PACKAGE = "com.example.synth";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final String ANNOTATION = "java.lang.Deprecated";
+
+    private int packages = 10;
+    private int classesPerPackage = 100;
+    private int layers = 5;
+    private int fanOut = 5;
+    private long seed = 42;
+    private double cycleDensity;
+    private boolean generics = true;
+    private boolean annotations;
+
+    /**
+     * @param classes the number of classes, there are 100 classes per package.
+     * @return a code base with the given number of classes
+     */
+    public static SyntheticCodebase withClasses(int classes) {
+        final int packages = Math.max(1, classes / 100);
+        return new SyntheticCodebase().packages(packages).classesPerPackage(classes / packages);
+    }
+
+    public SyntheticCodebase packages(int packages) {
+        this.packages = packages;
+        return this;
+    }
+
+    public SyntheticCodebase classesPerPackage(int classesPerPackage) {
+        this.classesPerPackage = classesPerPackage;
+        return this;
+    }
+
+    public SyntheticCodebase layers(int layers) {
+        this.layers = layers;
+        return this;
+    }
+
+    public SyntheticCodebase fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    public SyntheticCodebase seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @param cycleDensity the probability that a class uses an additional class with a higher index,
+     *                     which introduces cycles.
+     * @return this
+     */
+    public SyntheticCodebase cycleDensity(double cycleDensity) {
+        this.cycleDensity = cycleDensity;
+        return this;
+    }
+
+    /**
+     * @param generics if every second field should have a generic type.
+     * @return this
+     */
+    public SyntheticCodebase generics(boolean generics) {
+        this.generics = generics;
+        return this;
+    }
+
+    /**
+     * @param annotations if the classes should be annotated.
+     * @return this
+     */
+    public SyntheticCodebase annotations(boolean annotations) {
+        this.annotations = annotations;
+        return this;
+    }
+
+    public int getClassCount() {
+        return packages * classesPerPackage;
+    }
+
+    public int getPackageCount() {
+        return packages;
+    }
+
+    public int getLayerCount() {
+        return Math.min(layers, packages);
+    }
+
+    public int layerOf(int pack) {
+        return pack * getLayerCount() / packages;
+    }
+
+    public String layerName(int layer) {
+        return BASE_PACKAGE + ".l" + layer;
+    }
+
+    public String packageName(int pack) {
+        return layerName(layerOf(pack)) + ".p" + pack;
+    }
+
+    public String simpleClassName(int clazz) {
+        return "C" + clazz % classesPerPackage;
+    }
+
+    public String className(int clazz) {
+        return packageName(clazz / classesPerPackage) + "." + simpleClassName(clazz);
+    }
+
+    /**
+     * @param clazz the index of a class
+     * @return the indices of the classes used by the class.
+     * They are all lower than the given index, except for the one possibly added by the cycle density.
+     */
+    public int[] dependencies(int clazz) {
+        final Random random = new Random(seed * 31 + clazz);
+        final int count = Math.min(fanOut, clazz);
+        final int packStart = clazz - clazz % classesPerPackage;
+        final Set<Integer> deps = new LinkedHashSet<>();
+        while (deps.size() < count) {
+            final boolean samePackage = clazz > packStart && random.nextBoolean();
+            deps.add(samePackage ? packStart + random.nextInt(clazz - packStart) : random.nextInt(clazz));
+        }
+        final int higher = getClassCount() - clazz - 1;
+        if (cycleDensity > 0 && higher > 0 && random.nextDouble() < cycleDensity) {
+            deps.add(clazz + 1 + random.nextInt(higher));
+        }
+        final int[] res = new int[deps.size()];
+        int i = 0;
+        for (final int dep : deps) {
+            res[i++] = dep;
+        }
+        return res;
+    }
+
+    /**
+     * @param clazz the index of a class
+     * @return the generic type signatures of the fields of the class.
+     */
+    public List<String> fieldSignatures(int clazz) {
+        final List<String> res = new ArrayList<>();
+        for (final int dep : dependencies(clazz)) {
+            res.add("Ljava/util/Map<Ljava/lang/String;Ljava/util/List<+L" + internalName(dep) + ";>;>;");
+        }
+        return res;
+    }
+
+    public String annotationName() {
+        return ANNOTATION;
+    }
+
+    private boolean isGeneric(int field) {
+        return generics && field % 2 == 1;
+    }
+
+    public byte[] classFile(int clazz) {
+        try {
+            final ClassFileWriter writer = new ClassFileWriter();
+            final int[] deps = dependencies(clazz);
+            final int thisClass = writer.clazz(internalName(clazz));
+            final int superClass = writer.clazz("java/lang/Object");
+            final int[][] fields = new int[deps.length][];
+            final List<String> signatures = fieldSignatures(clazz);
+            for (int i = 0; i < deps.length; i++) {
+                final boolean generic = isGeneric(i);
+                fields[i] = new int[]{
+                        writer.utf8("f" + i),
+                        writer.utf8(generic ? "Ljava/util/Map;" : "L" + internalName(deps[i]) + ";"),
+                        generic ? writer.utf8(signatures.get(i)) : 0};
+            }
+            final int methodName = writer.utf8("run");
+            final int methodDescriptor = writer.utf8(deps.length == 0 ? "()V" : "(L" + internalName(deps[0]) + ";)V");
+            final int signature = writer.utf8("Signature");
+            final int sourceFile = writer.utf8("SourceFile");
+            final int sourceFileName = writer.utf8(simpleClassName(clazz) + ".java");
+            final int annotationAttribute = annotations ? writer.utf8("RuntimeVisibleAnnotations") : 0;
+            final int annotationType = annotations ? writer.utf8("L" + ANNOTATION.replace('.', '/') + ";") : 0;
+
+            final DataOutputStream out = writer.body();
+            out.writeShort(ACC_PUBLIC | ACC_SUPER | ACC_ABSTRACT);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fields.length);
+            for (final int[] field : fields) {
+                out.writeShort(ACC_PRIVATE);
+                out.writeShort(field[0]);
+                out.writeShort(field[1]);
+                if (field[2] == 0) {
+                    out.writeShort(0);
+                } else {
+                    out.writeShort(1);
+                    out.writeShort(signature);
+                    out.writeInt(2);
+                    out.writeShort(field[2]);
+                }
+            }
+            out.writeShort(1);
+            out.writeShort(ACC_PUBLIC | ACC_ABSTRACT);
+            out.writeShort(methodName);
+            out.writeShort(methodDescriptor);
+            out.writeShort(0);
+            out.writeShort(annotations ? 2 : 1);
+            out.writeShort(sourceFile);
+            out.writeInt(2);
+            out.writeShort(sourceFileName);
+            if (annotations) {
+                out.writeShort(annotationAttribute);
+                out.writeInt(6);
+                out.writeShort(1);
+                out.writeShort(annotationType);
+                out.writeShort(0);
+            }
+            return writer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<byte[]> classFiles() {
+        final List<byte[]> res = new ArrayList<>();
+        for (int i = 0; i < getClassCount(); i++) {
+            res.add(classFile(i));
+        }
+        return res;
+    }
+
+    public String source(int clazz, Language language) {
+        switch (language) {
+            case JAVA:
+                return javaSource(clazz);
+            case KOTLIN:
+                return kotlinSource(clazz);
+            default:
+                throw new IllegalArgumentException("Unsupported language " + language);
+        }
+    }
+
+    public String javaSource(int clazz) {
+        final StringBuilder s = sourceHeader(clazz, ";")
+                .append(annotations ? "@" + ANNOTATION + "\n" : "")
+                .append("public abstract class ").append(simpleClassName(clazz)).append(" {\n");
+        final int[] deps = dependencies(clazz);
+        for (int i = 0; i < deps.length; i++) {
+            final String type = className(deps[i]);
+            s.append("    private ").append(isGeneric(i) ? "Map<String, List<? extends " + type + ">>" : type)
+                    .append(" f").append(i).append("; // field ").append(i).append('\n');
+        }
+        return s.append("\n    /**\n     * Does something.\n     */\n")
+                .append("    public abstract void run(").append(deps.length == 0 ? "" : className(deps[0]) + " p")
+                .append(");\n\n")
+                .append("    private final String text = \"/* not a comment */\";\n")
+                .append("}\n")
+                .toString();
+    }
+
+    public String kotlinSource(int clazz) {
+        final StringBuilder s = sourceHeader(clazz, "")
+                .append(annotations ? "@" + ANNOTATION + "\n" : "")
+                .append("abstract class ").append(simpleClassName(clazz)).append(" {\n");
+        final int[] deps = dependencies(clazz);
+        for (int i = 0; i < deps.length; i++) {
+            final String type = className(deps[i]);
+            s.append("    private var f").append(i)
+                    .append(isGeneric(i) ? ": Map<String, List<out " + type + ">>? = null" : ": " + type + "? = null")
+                    .append(" // field ").append(i).append('\n');
+        }
+        return s.append("\n    /**\n     * Does something.\n     */\n")
+                .append("    abstract fun run(").append(deps.length == 0 ? "" : "p: " + className(deps[0]))
+                .append(")\n\n")
+                .append("    private val text = \"/* not a comment */\"\n")
+                .append("}\n")
+                .toString();
+    }
+
+    private StringBuilder sourceHeader(int clazz, String terminator) {
+        return new StringBuilder()
+                .append("/*\n * Generated by SyntheticCodebase.\n */\n")
+                .append("package ").append(packageName(clazz / classesPerPackage)).append(terminator).append("\n\n")
+                .append("import java.util.*").append(terminator).append("\n\n")
+                .append("// A synthetic class\n");
+    }
+
+    /**
+     * Read the code base into a model, using a temporary jar file.
+     *
+     * @return the model
+     * @throws IOException if the jar file could not be written
+     */
+    public Model readModel() throws IOException {
+        final File jar = File.createTempFile("synthetic", ".jar");
+        try {
+            writeJar(jar);
+            return Model.from(jar).parallelism(Runtime.getRuntime().availableProcessors()).read();
+        } finally {
+            Files.deleteIfExists(jar.toPath());
+        }
+    }
+
+    public void writeJar(File file) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int i = 0; i < getClassCount(); i++) {
+                out.putNextEntry(new JarEntry(internalName(i) + ".class"));
+                out.write(classFile(i));
+                out.closeEntry();
+            }
+        }
+    }
+
+    public void writeClasses(File dir) throws IOException {
+        for (int i = 0; i < getClassCount(); i++) {
+            write(new File(dir, internalName(i) + ".class"), classFile(i));
+        }
+    }
+
+    /**
+     * Write the source tree of the code base.
+     *
+     * @param dir      the base directory
+     * @param language JAVA or KOTLIN
+     * @throws IOException if a file could not be written
+     */
+    public void writeSources(File dir, Language language) throws IOException {
+        final String suffix = language == Language.KOTLIN ? ".kt" : ".java";
+        for (int i = 0; i < getClassCount(); i++) {
+            write(new File(dir, internalName(i) + suffix), source(i, language).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content);
+    }
+
+    /**
+     * @return rules that allow every layer to use itself and all lower layers.
+     */
+    public DependencyRules layerRules() {
+        final DependencyRules rules = DependencyRules.denyAll().withExternals("java.*");
+        final DependencyRule[] rs = new DependencyRule[getLayerCount()];
+        for (int i = 0; i < rs.length; i++) {
+            rs[i] = rules.addRule(layerName(i) + ".*");
+            for (int j = 0; j <= i; j++) {
+                rs[i].mayUse(rs[j]);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * @return rules with relaxed layers, the same architecture as {@link #layerRules()}.
+     */
+    public DependencyRules layers() {
+        final DependencyRules rules = DependencyRules.allowAll().withExternals("java.*");
+        final DependencyRule[] rs = new DependencyRule[getLayerCount()];
+        for (int i = 0; i < rs.length; i++) {
+            rs[rs.length - 1 - i] = DependencyRule.allowAll(layerName(i) + ".*");
+        }
+        rules.layers(rs);
+        return rules;
+    }
+
+    private String internalName(int clazz) {
+        return className(clazz).replace('.', '/');
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static guru.nidi.codeassert.benchmark.SyntheticCodebase.BASE_PACKAGE;
+import static java.util.Arrays.asList;
+
+/**
+ * Matches all class names against one rule per package plus some wildcard rules,
+ * once by checking every matcher and once using a {@link LocationMatcherIndex}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocationMatcherBenchmark {
+    private static final String[] PATTERNS = {
+            BASE_PACKAGE + ".*", BASE_PACKAGE + ".l1.*", "*.p1*", "*synth.l2.p+", "com.example.*", "*C1", "org.*"};
+
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private List<String> names;
+    private List<LocationMatcher> matchers;
+    private LocationMatcherIndex<LocationMatcher> index;
+
+    @Setup
+    public void setup() {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        names = new ArrayList<>();
+        for (int i = 0; i < codebase.getClassCount(); i++) {
+            names.add(codebase.className(i));
+        }
+        final List<String> patterns = new ArrayList<>(asList(PATTERNS));
+        for (int i = 0; i < codebase.getPackageCount(); i++) {
+            patterns.add(codebase.packageName(i));
+        }
+        matchers = new ArrayList<>();
+        index = new LocationMatcherIndex<>();
+        for (final String pattern : patterns) {
+            final LocationMatcher matcher = new LocationMatcher(Location.of(pattern));
+            matchers.add(matcher);
+            index.add(matcher, matcher);
+        }
+    }
+
+    @Benchmark
+    public int matchers() {
+        int matches = 0;
+        for (final String name : names) {
+            for (final LocationMatcher matcher : matchers) {
+                if (matcher.matchesClass(name)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int index() {
+        int matches = 0;
+        for (final String name : names) {
+            matches += index.matchingClass(name).size();
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.config.In;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static guru.nidi.codeassert.benchmark.SyntheticCodebase.BASE_PACKAGE;
+import static guru.nidi.codeassert.dependency.DependencyCollector.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class DependencyCollectorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private List<DependencyEntry> entries;
+    private DependencyCollector collector;
+
+    @Setup
+    public void setup() {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        entries = new ArrayList<>();
+        for (int i = 0; i < codebase.getClassCount(); i++) {
+            for (final int dep : codebase.dependencies(i)) {
+                entries.add(new DependencyEntry(codebase.className(dep), codebase.className(i)));
+            }
+        }
+        collector = new DependencyCollector().just(
+                In.locs(BASE_PACKAGE + ".l0.*", "*.C1").ignore(DENIED, MISSING),
+                In.loc("*.p1*").ignore(CYCLE),
+                In.classes("*C2", "*C3").ignore(DENIED));
+    }
+
+    @Benchmark
+    public void accept(Blackhole blackhole) {
+        for (final DependencyEntry entry : entries) {
+            blackhole.consume(collector.accept(entry));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.model.Scope;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class DependencyRulesBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    @Param({"PACKAGES", "CLASSES"})
+    String scope;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    @Param({"true", "false"})
+    boolean packageVerdicts;
+
+    private DependencyRules rules;
+    private DependencyRules layers;
+    private Scope<?> modelScope;
+
+    @Setup
+    public void setup() throws IOException {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        modelScope = ("PACKAGES".equals(scope) ? Scope.PACKAGES : Scope.CLASSES).in(codebase.readModel());
+        rules = codebase.layerRules().parallelism(parallelism).packageVerdicts(packageVerdicts);
+        layers = codebase.layers().parallelism(parallelism).packageVerdicts(packageVerdicts);
+    }
+
+    @Benchmark
+    public Dependencies analyzeRules() {
+        return rules.analyzeRules(modelScope);
+    }
+
+    @Benchmark
+    public Dependencies analyzeLayers() {
+        return layers.analyzeRules(modelScope);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.model.CodeClass;
+import guru.nidi.codeassert.model.Model;
+import guru.nidi.codeassert.model.Scope;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ReachabilityBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    @Param({"0", "0.05"})
+    double cycleDensity;
+
+    private Scope<CodeClass> classScope;
+    private String targetPrefix;
+    private Reachability<CodeClass> reachability;
+    private CodeClass target;
+
+    @Setup
+    public void setup() throws IOException {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes).cycleDensity(cycleDensity);
+        final Model model = codebase.readModel();
+        classScope = Scope.classes(model);
+        targetPrefix = codebase.layerName(0) + ".";
+        reachability = index();
+        for (final CodeClass c : classScope) {
+            if (c.getName().startsWith(targetPrefix)) {
+                target = c;
+            }
+        }
+    }
+
+    @Benchmark
+    public Reachability<CodeClass> index() {
+        return Reachability.of(classScope, c -> c.getName().startsWith(targetPrefix));
+    }
+
+    @Benchmark
+    public int reaches() {
+        int count = 0;
+        for (final CodeClass c : classScope) {
+            if (reachability.reaches(c, target)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
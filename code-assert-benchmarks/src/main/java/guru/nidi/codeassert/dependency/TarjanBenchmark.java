@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.model.CodeClass;
+import guru.nidi.codeassert.model.CodePackage;
+import guru.nidi.codeassert.model.Model;
+import guru.nidi.codeassert.model.Scope;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class TarjanBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    @Param({"0", "0.05"})
+    double cycleDensity;
+
+    private Scope<CodePackage> packages;
+    private Scope<CodeClass> classScope;
+
+    @Setup
+    public void setup() throws IOException {
+        final Model model = SyntheticCodebase.withClasses(classes).cycleDensity(cycleDensity).readModel();
+        packages = Scope.packages(model);
+        classScope = Scope.classes(model);
+    }
+
+    @Benchmark
+    public Set<DependencyMap> packageCycles() {
+        return new Tarjan<CodePackage>().analyzeCycles(packages, false);
+    }
+
+    @Benchmark
+    public Set<DependencyMap> classCycles() {
+        return new Tarjan<CodeClass>().analyzeCycles(classScope, false);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PackageMetricsBenchmark {
+    @Param({"10000", "60000"})
+    int classes;
+
+    private Model model;
+
+    @Setup
+    public void setup() throws IOException {
+        model = SyntheticCodebase.withClasses(classes).readModel();
+    }
+
+    @Benchmark
+    public List<PackageMetrics> packageMetrics() {
+        return PackageMetrics.of(model);
+    }
+}
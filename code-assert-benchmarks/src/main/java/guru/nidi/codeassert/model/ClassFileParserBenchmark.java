@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ClassFileParserBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private List<byte[]> classFiles;
+
+    @Setup
+    public void setup() {
+        classFiles = SyntheticCodebase.withClasses(classes).classFiles();
+    }
+
+    @Benchmark
+    public Model parse() throws IOException {
+        final Model model = new Model();
+        final ClassFileParser parser = new ClassFileParser();
+        for (final byte[] classFile : classFiles) {
+            parser.parse(new ByteArrayInputStream(classFile), model);
+        }
+        return model;
+    }
+
+    @Benchmark
+    public void constantPool(Blackhole blackhole) throws IOException {
+        for (final byte[] classFile : classFiles) {
+            final ByteBuffer buf = ByteBuffer.wrap(classFile);
+            // skip magic and version
+            ((Buffer) buf).position(8);
+            blackhole.consume(ConstantPool.fromData(buf));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ModelBuilderBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    private File jar;
+
+    @Setup
+    public void setup() throws IOException {
+        jar = File.createTempFile("synthetic", ".jar");
+        SyntheticCodebase.withClasses(classes).writeJar(jar);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jar.toPath());
+    }
+
+    @Benchmark
+    public Model read() {
+        return Model.from(jar).parallelism(parallelism).read();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ModelQueryBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private Model model;
+    private String pack;
+    private CodeClass object;
+
+    @Setup
+    public void setup() throws IOException {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        model = codebase.readModel();
+        object = model.getOrCreateClass("java.lang.Object");
+        pack = codebase.packageName(codebase.getPackageCount() / 2);
+        model.query().classes().inPackageTree(pack).stream().count();
+        model.query().hierarchy();
+    }
+
+    @Benchmark
+    public long indexed() {
+        return model.query().classes().inPackageTree(pack).stream().count();
+    }
+
+    @Benchmark
+    public long scan() {
+        return model.getClasses().stream().filter(c -> c.getName().startsWith(pack + ".")).count();
+    }
+
+    @Benchmark
+    public long subtypeChecks() {
+        final TypeHierarchy hierarchy = model.query().hierarchy();
+        return model.getClasses().stream().filter(c -> hierarchy.isSubtypeOf(c, object)).count();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static guru.nidi.codeassert.model.SignatureParser.Source.FIELD;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class SignatureParserBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private List<String> signatures;
+
+    @Setup
+    public void setup() {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        signatures = new ArrayList<>();
+        for (int i = 0; i < codebase.getClassCount(); i++) {
+            signatures.addAll(codebase.fieldSignatures(i));
+        }
+    }
+
+    @Benchmark
+    public void parseSignature(Blackhole blackhole) {
+        for (final String signature : signatures) {
+            blackhole.consume(SignatureParser.parseSignature(FIELD, signature).getClasses());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.benchmark.SyntheticCodebase;
+import guru.nidi.codeassert.config.Language;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class SourceFileParserBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int classes;
+
+    private List<String> sources;
+
+    @Setup
+    public void setup() {
+        final SyntheticCodebase codebase = SyntheticCodebase.withClasses(classes);
+        sources = new ArrayList<>();
+        for (int i = 0; i < codebase.getClassCount(); i++) {
+            sources.add(codebase.javaSource(i));
+        }
+    }
+
+    @Benchmark
+    public int countLines() throws IOException {
+        final CodeClass clazz = new CodeClass("com.example.Source");
+        int lines = 0;
+        for (final String source : sources) {
+            lines += SourceFileParser.parse(clazz, Language.JAVA, new StringReader(source)).getCodeLines();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.benchmark;
+
+import guru.nidi.codeassert.dependency.*;
+import guru.nidi.codeassert.io.ModelVisualizer;
+import guru.nidi.codeassert.model.*;
+import guru.nidi.graphviz.model.MutableNode;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static guru.nidi.graphviz.model.Factory.mutNode;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the analyzers on large synthetic code bases.
+ * Only code bases up to the size given by the system property "codeassert.scale" are tested,
+ * so nothing runs in a normal build. Use "mvn test -Pscale" to run all sizes.
+ */
+class SyntheticCodebaseScaleTest {
+    private static final int MAX_CLASSES = Integer.getInteger("codeassert.scale", 0);
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void acyclic(int classes, @TempDir Path dir) throws IOException {
+        final Dependencies deps = analyze(SyntheticCodebase.withClasses(classes), dir);
+        assertTrue(deps.getCycles().isEmpty());
+        assertTrue(deps.getDenied().isEmpty());
+        assertTrue(deps.getUndefined().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void cyclic(int classes, @TempDir Path dir) throws IOException {
+        final Dependencies deps = analyze(SyntheticCodebase.withClasses(classes)
+                .cycleDensity(.001).annotations(true), dir);
+        assertFalse(deps.getCycles().isEmpty());
+        assertFalse(deps.getDenied().isEmpty());
+    }
+
+    private Dependencies analyze(SyntheticCodebase codebase, Path dir) throws IOException {
+        assumeTrue(codebase.getClassCount() <= MAX_CLASSES, "codeassert.scale too small");
+        final File jar = dir.resolve("synthetic.jar").toFile();
+        codebase.writeJar(jar);
+        final Model model = Model.from(jar).parallelism(Runtime.getRuntime().availableProcessors()).read();
+        assertEquals(codebase.getClassCount(), model.getClasses().stream()
+                .filter(c -> c.getName().startsWith(SyntheticCodebase.BASE_PACKAGE)).count());
+
+        new ModelVisualizer(model).visualizePackages(pack -> {
+            final MutableNode node = mutNode(pack.getName());
+            for (final CodePackage dep : pack.uses()) {
+                node.addLink(dep.getName());
+            }
+            return node;
+        });
+
+        return new DependencyAnalyzer(model)
+                .rules(codebase.layerRules())
+                .analyze().findings();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.benchmark;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import guru.nidi.codeassert.config.Language;
+import guru.nidi.codeassert.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticCodebaseTest {
+    private final SyntheticCodebase codebase = new SyntheticCodebase().packages(4).classesPerPackage(10).layers(2);
+
+    @Test
+    void names() {
+        assertEquals(40, codebase.getClassCount());
+        assertEquals("com.example.synth.l0.p1", codebase.packageName(1));
+        assertEquals("com.example.synth.l1.p2.C3", codebase.className(23));
+    }
+
+    @Test
+    void dependencies() {
+        assertEquals(0, codebase.dependencies(0).length);
+        assertArrayEquals(codebase.dependencies(17), codebase.dependencies(17));
+        for (int i = 1; i < codebase.getClassCount(); i++) {
+            final int[] deps = codebase.dependencies(i);
+            assertEquals(Math.min(5, i), deps.length);
+            for (final int dep : deps) {
+                assertTrue(dep < i);
+            }
+        }
+    }
+
+    @Test
+    void model() throws IOException {
+        final Model model = codebase.readModel();
+        for (int i = 0; i < codebase.getClassCount(); i++) {
+            final String name = codebase.className(i);
+            final CodeClass clazz = model.getClasses().stream()
+                    .filter(c -> c.getName().equals(name)).findFirst().get();
+            final Set<String> expected = new TreeSet<>();
+            for (final int dep : codebase.dependencies(i)) {
+                expected.add(codebase.className(dep));
+            }
+            expected.add("java.lang.Object");
+            if (codebase.dependencies(i).length > 1) {
+                expected.add("java.util.Map");
+                expected.add("java.util.List");
+                expected.add("java.lang.String");
+            }
+            final Set<String> actual = new TreeSet<>();
+            clazz.usedClasses().forEach(c -> actual.add(c.getName()));
+            assertEquals(expected, actual);
+            assertEquals(codebase.simpleClassName(i) + ".java", clazz.getSourceFile());
+        }
+    }
+
+    @Test
+    void cycles() {
+        final SyntheticCodebase cyclic = new SyntheticCodebase().packages(4).classesPerPackage(10).cycleDensity(1);
+        for (int i = 0; i < cyclic.getClassCount() - 1; i++) {
+            final int[] deps = cyclic.dependencies(i);
+            assertEquals(Math.min(5, i) + 1, deps.length);
+            assertTrue(deps[deps.length - 1] > i);
+        }
+    }
+
+    @Test
+    void annotationsWithoutGenerics() throws IOException {
+        final Model model = new SyntheticCodebase().packages(2).classesPerPackage(5)
+                .annotations(true).generics(false).readModel();
+        for (final CodeClass clazz : model.getClasses()) {
+            if (clazz.getName().startsWith(SyntheticCodebase.BASE_PACKAGE)) {
+                assertEquals(1, clazz.getAnnotations().size());
+                assertEquals("java.lang.Deprecated", clazz.getAnnotations().iterator().next().getName());
+                assertFalse(clazz.usedClasses().stream().anyMatch(c -> c.getName().equals("java.util.Map")));
+            }
+        }
+    }
+
+    @Test
+    void files(@TempDir Path dir) throws IOException {
+        codebase.writeClasses(new File(dir.toFile(), "classes"));
+        codebase.writeSources(new File(dir.toFile(), "java"), Language.JAVA);
+        codebase.writeSources(new File(dir.toFile(), "kotlin"), Language.KOTLIN);
+        final String path = codebase.className(23).replace('.', '/');
+        assertTrue(Files.exists(dir.resolve("classes/" + path + ".class")));
+        assertEquals(codebase.javaSource(23), read(dir.resolve("java/" + path + ".java")));
+        assertEquals(codebase.kotlinSource(23), read(dir.resolve("kotlin/" + path + ".kt")));
+        final Model model = Model.from(new AnalyzerConfig().withClasses(new File(dir.toFile(), "classes")).getClasses())
+                .read();
+        assertEquals(codebase.getClassCount(), model.getClasses().stream()
+                .filter(c -> c.getName().startsWith(SyntheticCodebase.BASE_PACKAGE)).count());
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
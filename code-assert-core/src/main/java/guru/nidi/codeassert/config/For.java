@@ -61,4 +61,12 @@ public final class For {
     public Minima setNoMinima() {
         return new Minima(loc, pack, clazz);
     }
+
+    public Maxima setMaxima(double... values) {
+        return new Maxima(loc, pack, clazz, values);
+    }
+
+    public Maxima setNoMaxima() {
+        return new Maxima(loc, pack, clazz);
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+/**
+ * Limits for the values of a location, the location is given either by a pattern or by a package and a class.
+ */
+abstract class LocationLimits implements Action<ValuedLocation> {
+    private final LocationMatcher locationMatcher;
+    final String pack;
+    final String clazz;
+
+    LocationLimits(Location loc, String pack, String clazz) {
+        locationMatcher = loc == null ? null : new LocationMatcher(loc);
+        this.pack = pack;
+        this.clazz = clazz;
+    }
+
+    int matchLocation(ValuedLocation valLoc) {
+        if (locationMatcher == null) {
+            final int packMatch = wildcardMatches(pack, valLoc.pack);
+            final int clazzMatch = wildcardMatches(clazz, valLoc.clazz);
+            if (packMatch == 0 || clazzMatch == 0) {
+                return 0;
+            }
+            return packMatch + clazzMatch;
+        }
+        if (!locationMatcher.matchesPackageClass(valLoc.pack, valLoc.clazz)) {
+            return 0;
+        }
+        return locationMatcher.specificity();
+    }
+
+    private int wildcardMatches(String pattern, String value) {
+        if (pattern.equals(value)) {
+            return 3;
+        }
+        if (complexWildcardMatches(pattern, value)) {
+            return 2;
+        }
+        if ("*".equals(pattern) && value.length() > 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private boolean complexWildcardMatches(String pattern, String value) {
+        if (pattern.length() <= 1) {
+            return false;
+        }
+        final boolean startWild = pattern.startsWith("*") && value.endsWith(pattern.substring(1));
+        final boolean endWild = pattern.endsWith("*") && value.startsWith(pattern.substring(0, pattern.length() - 1));
+        return startWild || endWild;
+    }
+}
@@ -26,37 +26,51 @@ package guru.nidi.codeassert.config;
  */
 public class LocationMatcher implements Comparable<LocationMatcher> {
     private final Location loc;
+    private final WildcardPattern pack;
+    private final WildcardPattern clazz;
+    private final WildcardPattern method;
+    private final int specificity;
 
     public LocationMatcher(Location location) {
         if (location == null) {
             throw new IllegalArgumentException("location must not be null");
         }
         this.loc = location;
+        pack = WildcardPattern.of(loc.pack);
+        clazz = WildcardPattern.of(loc.clazz);
+        method = WildcardPattern.of(loc.method);
+        specificity = specificity(loc.pack) + specificity(loc.clazz) + specificity(loc.method);
     }
 
     public boolean matchesPackage(String packageName) {
-        return matchesPattern(loc.pack, packageName)
-                && matchesAll(loc.clazz) && matchesAll(loc.method);
+        return pack.matches(packageName) && clazz.matchesAll() && method.matchesAll();
     }
 
     public boolean matchesClass(String className) {
         final int pos = className.lastIndexOf('.');
         return pos < 0
-                ? matchesAll(loc.method) && matchesAll(loc.pack) && matchesClassPattern(loc.clazz, className)
-                : matchesPackageClass(className.substring(0, pos), className.substring(pos + 1));
+                ? method.matchesAll() && pack.matchesAll() && matchesClassPattern(className, 0)
+                : pack.matches(className, 0, pos) && matchesClassPattern(className, pos + 1) && method.matchesAll();
+    }
+
+    /**
+     * @param packageName a package name
+     * @return if this matcher can match some classes of the package, but not others.
+     * If not, it matches either all or none of the classes directly in the package.
+     */
+    public boolean distinguishesClassesIn(String packageName) {
+        return method.matchesAll() && !clazz.matchesAll() && pack.matches(packageName);
     }
 
     public boolean matchesPackageClass(String packageName, String className) {
-        return matchesPattern(loc.pack, packageName)
-                && matchesClassPattern(loc.clazz, className) && matchesAll(loc.method);
+        return pack.matches(packageName) && matchesClassPattern(className, 0) && method.matchesAll();
     }
 
     public boolean matches(String packageName, String className, String methodName) {
-        final boolean matchesClass = matchesAll(loc.method)
-                ? matchesClassPattern(loc.clazz, className)
-                : matchesPattern(loc.clazz, className);
-        return matchesPattern(loc.pack, packageName) && matchesClass &&
-                matchesPattern(loc.method, methodName == null ? "" : methodName);
+        final boolean matchesClass = method.matchesAll()
+                ? matchesClassPattern(className, 0)
+                : clazz.matches(className);
+        return pack.matches(packageName) && matchesClass && method.matches(methodName == null ? "" : methodName);
     }
 
     public boolean matchesLanguage(Language language) {
@@ -64,11 +78,11 @@ public class LocationMatcher implements Comparable<LocationMatcher> {
     }
 
     public int specificity() {
-        return specificity(loc.pack) + specificity(loc.clazz) + specificity(loc.method);
+        return specificity;
     }
 
-    private int specificity(String pattern) {
-        if (matchesAll(pattern)) {
+    private static int specificity(String pattern) {
+        if (pattern.length() == 0 || "*".equals(pattern)) {
             return 1;
         }
         int s = 4;
@@ -85,52 +99,19 @@ public class LocationMatcher implements Comparable<LocationMatcher> {
         return loc.getPattern();
     }
 
-    private boolean matchesAll(String pattern) {
-        return pattern.length() == 0 || "*".equals(pattern);
-    }
-
-    private boolean matchesClassPattern(String pat, String name) {
-        if (matchesPattern(pat, name)) {
-            return true;
-        }
-        final int pos = name.indexOf('$');
-        if (pos >= 0) {
-            return matchesPattern(pat, name.substring(0, pos));
-        }
-        return false;
+    /**
+     * @return the fixed start of the package pattern, every matching package or class name starts with it.
+     */
+    public String packagePrefix() {
+        return WildcardPattern.prefix(loc.pack);
     }
 
-    static boolean matchesPattern(String pat, String name) {
-        if (pat.length() == 0 || "*".equals(pat) || ("+".equals(pat) && name.length() > 0)) {
+    private boolean matchesClassPattern(String name, int from) {
+        if (clazz.matches(name, from, name.length())) {
             return true;
         }
-        if (pat.endsWith(".*")) {
-            return matchesPattern(pat.substring(0, pat.length() - 2), name)
-                    || matchesPattern(pat.substring(0, pat.length() - 1) + "+", name);
-        }
-        String pattern = pat;
-        final char start = pattern.charAt(0);
-        if (start == '*' || start == '+') {
-            pattern = pattern.substring(1);
-        }
-        final char end = pattern.charAt(pattern.length() - 1);
-        if (end == '*' || end == '+') {
-            pattern = pattern.substring(0, pattern.length() - 1);
-        }
-        return doMatchesPattern(start, end, pattern, name);
-    }
-
-    private static boolean doMatchesPattern(char start, char end, String pat, String name) {
-        final int pos = name.indexOf(pat);
-        if (pos < 0) {
-            return false;
-        }
-
-        final boolean startsWithPat = pos == 0;
-        final boolean endsWithPat = pos + pat.length() == name.length();
-        final boolean startOk = start == '*' || ((start == '+') != startsWithPat);
-        final boolean endOk = end == '*' || ((end == '+') != endsWithPat);
-        return startOk && endOk;
+        final int pos = name.indexOf('$', from);
+        return pos >= 0 && clazz.matches(name, from, pos);
     }
 
     @Override
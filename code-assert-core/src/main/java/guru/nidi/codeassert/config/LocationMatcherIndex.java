@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Finds the values of all {@link LocationMatcher}s that match a package or class name.
+ * The matchers are stored in a trie by the fixed start of their package pattern,
+ * so a lookup only walks the package name once and checks just the matchers found along the way,
+ * instead of checking all matchers.
+ *
+ * @param <V> the type of the values
+ */
+public class LocationMatcherIndex<V> {
+    private final Node root = new Node();
+    private final List<LocationMatcher> matchers = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+
+    public LocationMatcherIndex<V> add(LocationMatcher matcher, V value) {
+        Node node = root;
+        final String prefix = matcher.packagePrefix();
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.child(prefix.charAt(i), true);
+        }
+        node.add(matchers.size());
+        matchers.add(matcher);
+        values.add(value);
+        return this;
+    }
+
+    public int size() {
+        return matchers.size();
+    }
+
+    /**
+     * @param packageName the package name
+     * @return the values of all matchers that match the package, in the order they were added.
+     */
+    public List<V> matchingPackage(String packageName) {
+        return matching(packageName, packageName.length(), true);
+    }
+
+    /**
+     * @param className the fully qualified class name
+     * @return the values of all matchers that match the class, in the order they were added.
+     */
+    public List<V> matchingClass(String className) {
+        return matching(className, Math.max(0, className.lastIndexOf('.')), false);
+    }
+
+    /**
+     * Checks all matchers one by one, without using the index.
+     *
+     * @param test decides if a matcher matches
+     * @return the values of all matchers passing the test, in the order they were added.
+     */
+    public List<V> matching(Predicate<LocationMatcher> test) {
+        final List<V> res = new ArrayList<>();
+        for (int i = 0; i < matchers.size(); i++) {
+            if (test.test(matchers.get(i))) {
+                res.add(values.get(i));
+            }
+        }
+        return res;
+    }
+
+    private List<V> matching(String name, int packageEnd, boolean isPackage) {
+        int[] found = null;
+        int count = 0;
+        Node node = root;
+        for (int i = 0; node != null; i++) {
+            for (int j = 0; j < node.size; j++) {
+                final int index = node.entries[j];
+                final LocationMatcher matcher = matchers.get(index);
+                if (isPackage ? matcher.matchesPackage(name) : matcher.matchesClass(name)) {
+                    if (found == null) {
+                        found = new int[4];
+                    } else if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = index;
+                }
+            }
+            node = i < packageEnd ? node.child(name.charAt(i), false) : null;
+        }
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(found, 0, count);
+        final List<V> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            res.add(values.get(found[i]));
+        }
+        return res;
+    }
+
+    private static final class Node {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+        private static final int[] NO_ENTRIES = new int[0];
+
+        char[] chars = NO_CHARS;
+        Node[] children = NO_NODES;
+        int[] entries = NO_ENTRIES;
+        int size;
+
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(2, size * 2));
+            }
+            entries[size++] = entry;
+        }
+
+        Node child(char c, boolean create) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return children[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            final Node node = new Node();
+            chars = Arrays.copyOf(chars, chars.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            chars[chars.length - 1] = c;
+            children[children.length - 1] = node;
+            return node;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import java.util.List;
 public class LocationNameMatcher {
     private final List<LocationMatcher> matchers;
     private final List<String> names;
+    private final List<WildcardPattern> strictNames;
+    private final List<WildcardPattern> looseNames;
 
     /**
      * Empty lists match any input.
@@ -41,6 +43,12 @@ public class LocationNameMatcher {
             this.matchers.add(new LocationMatcher(loc));
         }
         this.names = names;
+        strictNames = new ArrayList<>();
+        looseNames = new ArrayList<>();
+        for (final String name : names) {
+            strictNames.add(WildcardPattern.of(createPattern(name, true)));
+            looseNames.add(WildcardPattern.of(createPattern(name, false)));
+        }
     }
 
     /**
@@ -78,8 +86,8 @@ public class LocationNameMatcher {
         if (names.isEmpty()) {
             return true;
         }
-        for (final String n : names) {
-            if (LocationMatcher.matchesPattern(createPattern(n, strictNameMatch), name)) {
+        for (final WildcardPattern n : strictNameMatch ? strictNames : looseNames) {
+            if (n.matches(name)) {
                 return true;
             }
         }
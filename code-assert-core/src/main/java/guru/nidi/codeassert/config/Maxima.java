@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+import java.util.Arrays;
+
+public class Maxima extends LocationLimits {
+    private final double[] values;
+
+    Maxima(Location loc, String pack, String clazz, double... values) {
+        super(loc, pack, clazz);
+        for (final double value : values) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid value " + value);
+            }
+        }
+        this.values = values;
+    }
+
+    public int getValueCount() {
+        return values.length;
+    }
+
+    @Override
+    public ActionResult accept(ValuedLocation valLoc) {
+        final int quality = matchLocation(valLoc);
+        if (quality == 0) {
+            return ActionResult.undecided(this);
+        }
+
+        for (int i = 0; i < valLoc.values.length; i++) {
+            valLoc.appliedLimits[i] = i < values.length ? values[i] : -1;
+        }
+        for (int i = 0; i < valLoc.values.length; i++) {
+            if (valLoc.appliedLimits[i] >= 0 && valLoc.values[i] > valLoc.appliedLimits[i]) {
+                return ActionResult.accept(this, quality);
+            }
+        }
+        return ActionResult.reject(this, quality);
+    }
+
+    @Override
+    public String toString() {
+        return "    maxima for " + pack + "." + clazz + ": " + Arrays.toString(values);
+    }
+}
@@ -17,16 +17,11 @@ package guru.nidi.codeassert.config;
 
 import java.util.Arrays;
 
-public class Minima implements Action<ValuedLocation> {
-    private final LocationMatcher locationMatcher;
-    private final String pack;
-    private final String clazz;
+public class Minima extends LocationLimits {
     private final int[] values;
 
     Minima(Location loc, String pack, String clazz, int... values) {
-        locationMatcher = loc == null ? null : new LocationMatcher(loc);
-        this.pack = pack;
-        this.clazz = clazz;
+        super(loc, pack, clazz);
         for (final int value : values) {
             if (value < 0 || value > 100) {
                 throw new IllegalArgumentException("Invalid value " + value);
@@ -57,43 +52,6 @@ public class Minima implements Action<ValuedLocation> {
         return ActionResult.reject(this, quality);
     }
 
-    private int matchLocation(ValuedLocation valLoc) {
-        if (locationMatcher == null) {
-            final int packMatch = wildcardMatches(pack, valLoc.pack);
-            final int clazzMatch = wildcardMatches(clazz, valLoc.clazz);
-            if (packMatch == 0 || clazzMatch == 0) {
-                return 0;
-            }
-            return packMatch + clazzMatch;
-        }
-        if (!locationMatcher.matchesPackageClass(valLoc.pack, valLoc.clazz)) {
-            return 0;
-        }
-        return locationMatcher.specificity();
-    }
-
-    private int wildcardMatches(String pattern, String value) {
-        if (pattern.equals(value)) {
-            return 3;
-        }
-        if (complexWildcardMatches(pattern, value)) {
-            return 2;
-        }
-        if ("*".equals(pattern) && value.length() > 0) {
-            return 1;
-        }
-        return 0;
-    }
-
-    private boolean complexWildcardMatches(String pattern, String value) {
-        if (pattern.length() <= 1) {
-            return false;
-        }
-        final boolean startWild = pattern.startsWith("*") && value.endsWith(pattern.substring(1));
-        final boolean endWild = pattern.endsWith("*") && value.startsWith(pattern.substring(0, pattern.length() - 1));
-        return startWild || endWild;
-    }
-
     @Override
     public String toString() {
         return "    minima for " + pack + "." + clazz + ": " + Arrays.toString(values);
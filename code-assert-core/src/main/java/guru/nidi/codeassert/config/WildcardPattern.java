@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+/**
+ * One part (package, class or method) of a location pattern, compiled once.
+ * Matching does not allocate any objects.
+ */
+final class WildcardPattern {
+    private static final WildcardPattern ALL = new WildcardPattern(true, false, '*', '*', "", null);
+    private static final WildcardPattern NON_EMPTY = new WildcardPattern(false, true, '+', '+', "", null);
+
+    private final boolean all;
+    private final boolean nonEmpty;
+    private final char start;
+    private final char end;
+    private final String literal;
+    private final WildcardPattern alternative;
+
+    private WildcardPattern(boolean all, boolean nonEmpty, char start, char end, String literal,
+                            WildcardPattern alternative) {
+        this.all = all;
+        this.nonEmpty = nonEmpty;
+        this.start = start;
+        this.end = end;
+        this.literal = literal;
+        this.alternative = alternative;
+    }
+
+    static WildcardPattern of(String pat) {
+        if (pat.length() == 0 || "*".equals(pat)) {
+            return ALL;
+        }
+        if ("+".equals(pat)) {
+            return NON_EMPTY;
+        }
+        if (pat.endsWith(".*")) {
+            final WildcardPattern exact = of(pat.substring(0, pat.length() - 2));
+            final WildcardPattern sub = of(pat.substring(0, pat.length() - 1) + "+");
+            return new WildcardPattern(exact.all, exact.nonEmpty, exact.start, exact.end, exact.literal, sub);
+        }
+        String pattern = pat;
+        final char start = pattern.charAt(0);
+        if (start == '*' || start == '+') {
+            pattern = pattern.substring(1);
+        }
+        final char end = pattern.charAt(pattern.length() - 1);
+        if (end == '*' || end == '+') {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        return new WildcardPattern(false, false, start, end, pattern, null);
+    }
+
+    /**
+     * @param pat a pattern
+     * @return the fixed part at the start of the pattern, without a trailing '.'.
+     * Every name matched by the pattern starts with it.
+     */
+    static String prefix(String pat) {
+        int i = 0;
+        while (i < pat.length() && pat.charAt(i) != '*' && pat.charAt(i) != '+') {
+            i++;
+        }
+        return i > 0 && i < pat.length() && pat.charAt(i - 1) == '.' ? pat.substring(0, i - 1) : pat.substring(0, i);
+    }
+
+    boolean matchesAll() {
+        return all && alternative == null;
+    }
+
+    boolean matches(String name) {
+        return matches(name, 0, name.length());
+    }
+
+    /**
+     * @param name the name
+     * @param from the start index of the region to match, inclusive
+     * @param to   the end index of the region to match, exclusive
+     * @return if the region of the name matches the pattern.
+     */
+    boolean matches(String name, int from, int to) {
+        return doMatches(name, from, to) || (alternative != null && alternative.matches(name, from, to));
+    }
+
+    private boolean doMatches(String name, int from, int to) {
+        if (all || (nonEmpty && to > from)) {
+            return true;
+        }
+        if (nonEmpty) {
+            return false;
+        }
+        final int pos = name.indexOf(literal, from);
+        if (pos < 0 || pos + literal.length() > to) {
+            return false;
+        }
+        final boolean startsWithPat = pos == from;
+        final boolean endsWithPat = pos + literal.length() == to;
+        final boolean startOk = start == '*' || ((start == '+') != startsWithPat);
+        final boolean endOk = end == '*' || ((end == '+') != endsWithPat);
+        return startOk && endOk;
+    }
+}
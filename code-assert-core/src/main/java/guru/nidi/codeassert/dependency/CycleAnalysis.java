@@ -0,0 +1,463 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import java.util.*;
+
+/**
+ * Looks into the groups of elements with mutual dependencies found by the dependency analysis.
+ * A big group is not very helpful to decide what should be fixed, so this finds
+ * the shortest elementary cycles and an approximately minimal set of dependencies that breaks all cycles,
+ * preferring dependencies that are seldom used.
+ * The work is bounded by a count and a time budget, so it stays fast even on groups with thousands of elements.
+ */
+public class CycleAnalysis {
+    private static final int DEFAULT_MAX_CYCLES = 100;
+    private static final long DEFAULT_MAX_MILLIS = 1000;
+    private static final int CHECK_INTERVAL = 0xfff;
+
+    private final int maxCycles;
+    private final long maxMillis;
+
+    public CycleAnalysis() {
+        this(DEFAULT_MAX_CYCLES, DEFAULT_MAX_MILLIS);
+    }
+
+    private CycleAnalysis(int maxCycles, long maxMillis) {
+        this.maxCycles = maxCycles;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * @param maxCycles the maximum number of cycles {@link #shortestCycles(DependencyMap)} returns.
+     * @return a new analysis with the given budget.
+     */
+    public CycleAnalysis maxCycles(int maxCycles) {
+        if (maxCycles < 0) {
+            throw new IllegalArgumentException("maxCycles must not be negative.");
+        }
+        return new CycleAnalysis(maxCycles, maxMillis);
+    }
+
+    /**
+     * @param maxMillis the maximum time in milliseconds to spend in one search.
+     *                  When it is exceeded, the best result found so far is returned.
+     * @return a new analysis with the given budget.
+     */
+    public CycleAnalysis maxMillis(long maxMillis) {
+        if (maxMillis < 0) {
+            throw new IllegalArgumentException("maxMillis must not be negative.");
+        }
+        return new CycleAnalysis(maxCycles, maxMillis);
+    }
+
+    /**
+     * Finds the shortest cycle through every element, a cycle found for several elements is returned once.
+     *
+     * @param group a group of elements with mutual dependencies, as in {@link Dependencies#getCycles()}
+     * @return the shortest cycles, shortest first, limited by the budgets.
+     * Every cycle starts with its alphabetically smallest element, which is not repeated at the end.
+     */
+    public List<List<String>> shortestCycles(DependencyMap group) {
+        final Graph g = new Graph(group);
+        final long deadline = deadline();
+        final Set<List<Integer>> found = new HashSet<>();
+        final List<int[]> cycles = new ArrayList<>();
+        final int[] seen = new int[g.size];
+        final int[] parent = new int[g.size];
+        final int[] queue = new int[g.size];
+        int steps = 0;
+        for (int start = 0; start < g.size && !timeout(deadline); start++) {
+            final int stamp = start + 1;
+            int head = 0;
+            int tail = 0;
+            int last = -1;
+            queue[tail++] = start;
+            seen[start] = stamp;
+            while (head < tail && last < 0) {
+                if ((++steps & CHECK_INTERVAL) == 0 && timeout(deadline)) {
+                    break;
+                }
+                final int v = queue[head++];
+                for (int e = g.outStart[v]; e < g.outStart[v + 1]; e++) {
+                    final int w = g.target[e];
+                    if (w == start) {
+                        last = v;
+                        break;
+                    }
+                    if (seen[w] != stamp) {
+                        seen[w] = stamp;
+                        parent[w] = v;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (last >= 0) {
+                final int[] cycle = path(start, last, parent);
+                if (found.add(canonical(cycle))) {
+                    cycles.add(cycle);
+                }
+            }
+        }
+        cycles.sort(Comparator.comparingInt(c -> c.length));
+        final List<List<String>> res = new ArrayList<>();
+        for (int i = 0; i < Math.min(maxCycles, cycles.size()); i++) {
+            final List<String> cycle = new ArrayList<>();
+            for (final int v : canonical(cycles.get(i))) {
+                cycle.add(g.names[v]);
+            }
+            res.add(cycle);
+        }
+        return res;
+    }
+
+    /**
+     * @param cycle a cycle
+     * @return the cycle rotated to start with its smallest element.
+     */
+    private static List<Integer> canonical(int[] cycle) {
+        int min = 0;
+        for (int i = 1; i < cycle.length; i++) {
+            if (cycle[i] < cycle[min]) {
+                min = i;
+            }
+        }
+        final List<Integer> res = new ArrayList<>(cycle.length);
+        for (int i = 0; i < cycle.length; i++) {
+            res.add(cycle[(min + i) % cycle.length]);
+        }
+        return res;
+    }
+
+    private static int[] path(int start, int last, int[] parent) {
+        int len = 1;
+        for (int v = last; v != start; v = parent[v]) {
+            len++;
+        }
+        final int[] path = new int[len];
+        for (int v = last, i = len - 1; i >= 0; v = parent[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Finds a set of dependencies whose removal breaks all cycles of the group.
+     * The set is found with the greedy heuristic of Eades, Lin and Smyth, weighted by the usage counts.
+     * Then, as long as the time budget allows, heavy dependencies that do not close a cycle are put back,
+     * which makes the set minimal, but not necessarily minimum.
+     *
+     * @param group a group of elements with mutual dependencies, as in {@link Dependencies#getCycles()}
+     * @return the dependencies to remove.
+     */
+    public DependencyMap feedbackArcs(DependencyMap group) {
+        final Graph g = new Graph(group);
+        final long deadline = deadline();
+        final int[] pos = g.greedyOrder();
+        final List<Integer> arcs = new ArrayList<>();
+        final boolean[] removed = new boolean[g.edges];
+        for (int e = 0; e < g.edges; e++) {
+            if (pos[g.source[e]] >= pos[g.target[e]]) {
+                removed[e] = true;
+                arcs.add(e);
+            }
+        }
+        arcs.sort((a, b) -> g.weight[a] != g.weight[b] ? Integer.compare(g.weight[b], g.weight[a]) : Integer.compare(a, b));
+        final int[] seen = new int[g.size];
+        final int[] stack = new int[g.size];
+        int stamp = 0;
+        for (final int e : arcs) {
+            if (timeout(deadline)) {
+                break;
+            }
+            if (g.source[e] != g.target[e] && !g.reaches(g.target[e], g.source[e], removed, seen, ++stamp, stack)) {
+                removed[e] = false;
+            }
+        }
+        final DependencyMap res = new DependencyMap();
+        for (int e = 0; e < g.edges; e++) {
+            if (removed[e]) {
+                final String from = g.names[g.source[e]];
+                final String to = g.names[g.target[e]];
+                final DependencyMap.Info info = group.getDependency(from, to);
+                res.with(info.getSpecificity(), from, info.getVias(), to, info.getCount());
+            }
+        }
+        return res;
+    }
+
+    private long deadline() {
+        return System.nanoTime() + maxMillis * 1_000_000;
+    }
+
+    private static boolean timeout(long deadline) {
+        return System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * The group as arrays: elements are numbered in alphabetical order,
+     * edges are sorted by source and target and stored in compressed row form.
+     */
+    private static final class Graph {
+        final String[] names;
+        final int size;
+        final int edges;
+        final int[] outStart;
+        final int[] source;
+        final int[] target;
+        final int[] weight;
+        final int[] inStart;
+        final int[] inEdge;
+
+        Graph(DependencyMap group) {
+            final Set<String> all = new TreeSet<>(group.getElements());
+            for (final String elem : group.getElements()) {
+                all.addAll(group.getDependencies(elem).keySet());
+            }
+            names = all.toArray(new String[0]);
+            size = names.length;
+            final Map<String, Integer> nodes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                nodes.put(names[i], i);
+            }
+            int count = 0;
+            for (final String elem : group.getElements()) {
+                count += group.getDependencies(elem).size();
+            }
+            edges = count;
+            outStart = new int[size + 1];
+            source = new int[edges];
+            target = new int[edges];
+            weight = new int[edges];
+            int e = 0;
+            for (int v = 0; v < size; v++) {
+                outStart[v] = e;
+                final Map<String, DependencyMap.Info> deps = group.getDependencies(names[v]);
+                final int start = e;
+                for (final String to : deps.keySet()) {
+                    target[e++] = nodes.get(to);
+                }
+                Arrays.sort(target, start, e);
+                for (int i = start; i < e; i++) {
+                    source[i] = v;
+                    weight[i] = Math.max(1, deps.get(names[target[i]]).getCount());
+                }
+            }
+            outStart[size] = e;
+            inStart = new int[size + 1];
+            inEdge = new int[edges];
+            for (int i = 0; i < edges; i++) {
+                inStart[target[i] + 1]++;
+            }
+            for (int v = 0; v < size; v++) {
+                inStart[v + 1] += inStart[v];
+            }
+            final int[] fill = Arrays.copyOf(inStart, size);
+            for (int i = 0; i < edges; i++) {
+                inEdge[fill[target[i]]++] = i;
+            }
+        }
+
+        /**
+         * Orders the elements so that few and light dependencies point backwards.
+         * Sinks are put at the end, sources at the beginning and otherwise the element
+         * with the biggest difference between outgoing and incoming weight is put at the beginning.
+         *
+         * @return the position of every element in the order.
+         */
+        int[] greedyOrder() {
+            final boolean[] alive = new boolean[size];
+            final int[] inDegree = new int[size];
+            final int[] outDegree = new int[size];
+            final long[] delta = new long[size];
+            for (int e = 0; e < edges; e++) {
+                outDegree[source[e]]++;
+                inDegree[target[e]]++;
+                delta[source[e]] += weight[e];
+                delta[target[e]] -= weight[e];
+            }
+            final int[] sinks = new int[size];
+            final int[] sources = new int[size];
+            int sinkCount = 0;
+            int sourceCount = 0;
+            final MaxHeap heap = new MaxHeap(delta);
+            for (int v = 0; v < size; v++) {
+                alive[v] = true;
+                heap.add(v);
+                if (outDegree[v] == 0) {
+                    sinks[sinkCount++] = v;
+                } else if (inDegree[v] == 0) {
+                    sources[sourceCount++] = v;
+                }
+            }
+            final int[] pos = new int[size];
+            int front = 0;
+            int back = size - 1;
+            while (front <= back) {
+                final int v;
+                if (sinkCount > 0) {
+                    v = sinks[--sinkCount];
+                    if (!alive[v]) {
+                        continue;
+                    }
+                    pos[v] = back--;
+                } else if (sourceCount > 0) {
+                    v = sources[--sourceCount];
+                    if (!alive[v]) {
+                        continue;
+                    }
+                    pos[v] = front++;
+                } else {
+                    v = heap.max();
+                    pos[v] = front++;
+                }
+                alive[v] = false;
+                heap.remove(v);
+                for (int e = outStart[v]; e < outStart[v + 1]; e++) {
+                    final int w = target[e];
+                    if (alive[w]) {
+                        delta[w] += weight[e];
+                        heap.update(w);
+                        if (--inDegree[w] == 0 && outDegree[w] > 0) {
+                            sources[sourceCount++] = w;
+                        }
+                    }
+                }
+                for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+                    final int e = inEdge[i];
+                    final int u = source[e];
+                    if (alive[u]) {
+                        delta[u] -= weight[e];
+                        heap.update(u);
+                        if (--outDegree[u] == 0) {
+                            sinks[sinkCount++] = u;
+                        }
+                    }
+                }
+            }
+            return pos;
+        }
+
+        boolean reaches(int from, int to, boolean[] removed, int[] seen, int stamp, int[] stack) {
+            int top = 0;
+            stack[top++] = from;
+            seen[from] = stamp;
+            while (top > 0) {
+                final int v = stack[--top];
+                for (int e = outStart[v]; e < outStart[v + 1]; e++) {
+                    final int w = target[e];
+                    if (!removed[e] && seen[w] != stamp) {
+                        if (w == to) {
+                            return true;
+                        }
+                        seen[w] = stamp;
+                        stack[top++] = w;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A binary max heap of element numbers ordered by a key array, smaller numbers first on equal keys.
+     */
+    private static final class MaxHeap {
+        private final long[] keys;
+        private final int[] heap;
+        private final int[] index;
+        private int size;
+
+        MaxHeap(long[] keys) {
+            this.keys = keys;
+            heap = new int[keys.length];
+            index = new int[keys.length];
+            Arrays.fill(index, -1);
+        }
+
+        void add(int v) {
+            heap[size] = v;
+            index[v] = size;
+            up(size++);
+        }
+
+        int max() {
+            return heap[0];
+        }
+
+        void remove(int v) {
+            final int i = index[v];
+            index[v] = -1;
+            size--;
+            if (i < size) {
+                final int moved = heap[size];
+                heap[i] = moved;
+                index[moved] = i;
+                down(i);
+                up(index[moved]);
+            }
+        }
+
+        void update(int v) {
+            final int i = index[v];
+            if (i >= 0) {
+                up(i);
+                down(index[v]);
+            }
+        }
+
+        private boolean before(int a, int b) {
+            return keys[a] > keys[b] || (keys[a] == keys[b] && a < b);
+        }
+
+        private void up(int pos) {
+            int i = pos;
+            while (i > 0) {
+                final int parent = (i - 1) / 2;
+                if (!before(heap[i], heap[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int pos) {
+            int i = pos;
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                final int right = left + 1;
+                final int child = right < size && before(heap[right], heap[left]) ? right : left;
+                if (!before(heap[child], heap[i])) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            final int t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+            index[heap[a]] = a;
+            index[heap[b]] = b;
+        }
+    }
+}
@@ -28,6 +28,20 @@ import static java.lang.System.lineSeparator;
 public class DependencyCycleMatcher extends TypeSafeMatcher<DependencyResult> {
     private static final Comparator<DependencyMap> DEP_MAP_COMPARATOR = new DependencyMapComparator();
 
+    private final CycleAnalysis analysis;
+
+    public DependencyCycleMatcher() {
+        this(null);
+    }
+
+    /**
+     * @param analysis if not null, every group of elements is described by its shortest cycles
+     *                 and the dependencies that should be removed instead of all its dependencies.
+     */
+    public DependencyCycleMatcher(CycleAnalysis analysis) {
+        this.analysis = analysis;
+    }
+
     @Override
     protected boolean matchesSafely(DependencyResult item) {
         return item.findings().getCycles().isEmpty();
@@ -44,10 +58,31 @@ public class DependencyCycleMatcher extends TypeSafeMatcher<DependencyResult> {
         for (final DependencyMap cycle : sortedDepMaps(result)) {
             description.appendText(String.format("%-12s %s%n", CYCLE,
                     "This group of elements has mutual dependencies:"));
-            for (final String elem : sorted(cycle.getElements())) {
-                description.appendText(String.format("  %s ->%n", elem));
-                description.appendText(deps("    ", cycle.getDependencies(elem)));
+            if (analysis == null) {
+                describeDependencies("  ", cycle, description);
+            } else {
+                describeAnalysis(cycle, description);
+            }
+        }
+    }
+
+    private void describeAnalysis(DependencyMap cycle, Description description) {
+        description.appendText(String.format("  Shortest cycles:%n"));
+        for (final List<String> elems : analysis.shortestCycles(cycle)) {
+            final StringBuilder s = new StringBuilder();
+            for (final String elem : elems) {
+                s.append(elem).append(" -> ");
             }
+            description.appendText(String.format("    %s%s%n", s, elems.get(0)));
+        }
+        description.appendText(String.format("  Remove these dependencies to break all cycles:%n"));
+        describeDependencies("    ", analysis.feedbackArcs(cycle), description);
+    }
+
+    private static void describeDependencies(String prefix, DependencyMap deps, Description description) {
+        for (final String elem : sorted(deps.getElements())) {
+            description.appendText(String.format("%s%s ->%n", prefix, elem));
+            description.appendText(deps(prefix + "  ", deps.getDependencies(elem)));
         }
     }
 
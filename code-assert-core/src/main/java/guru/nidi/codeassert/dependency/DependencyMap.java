@@ -31,13 +31,18 @@ public class DependencyMap {
     }
 
     DependencyMap with(int specificity, String from, Collection<String> vias, String to) {
+        return with(specificity, from, vias, to, 0);
+    }
+
+    DependencyMap with(int specificity, String from, Collection<String> vias, String to, int count) {
         final Map<String, Info> deps = map.computeIfAbsent(from, k -> new HashMap<>());
         final Info info = deps.get(to);
         if (info == null) {
-            deps.put(to, new Info(vias, specificity));
+            deps.put(to, new Info(vias, specificity, count));
         } else {
             //TODO specificity?
             info.getVias().addAll(vias);
+            info.count += count;
         }
         return this;
     }
@@ -46,7 +51,7 @@ public class DependencyMap {
         final Map<String, Info> infos = other.getDependencies(from);
         for (final Entry<String, Info> entry : infos.entrySet()) {
             final Info info = entry.getValue();
-            with(info.getSpecificity(), from, info.getVias(), entry.getKey());
+            with(info.getSpecificity(), from, info.getVias(), entry.getKey(), info.getCount());
         }
         return this;
     }
@@ -138,10 +143,12 @@ public class DependencyMap {
     public static class Info {
         private final Set<String> vias;
         private final int specificity;
+        private int count;
 
-        Info(Collection<String> vias, int specificity) {
+        Info(Collection<String> vias, int specificity, int count) {
             this.vias = new HashSet<>(vias);
             this.specificity = specificity;
+            this.count = count;
         }
 
         public Set<String> getVias() {
@@ -152,6 +159,13 @@ public class DependencyMap {
             return specificity;
         }
 
+        /**
+         * @return how often the dependency is used, 0 if this is not known.
+         */
+        public int getCount() {
+            return count;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
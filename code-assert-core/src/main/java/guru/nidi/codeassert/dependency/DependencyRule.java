@@ -19,13 +19,16 @@ import guru.nidi.codeassert.config.LocationMatcher;
 import guru.nidi.codeassert.model.Scope;
 import guru.nidi.codeassert.model.UsingElement;
 
-import java.util.List;
+import java.util.*;
 
 import static guru.nidi.codeassert.dependency.RuleAccessor.*;
 
 public class DependencyRule extends CodeElement {
+    private static final int[] NO_VERDICT = new int[0];
+
     final Usage use = new Usage();
     final Usage usedBy = new Usage();
+    final Usage reach = new Usage();
     boolean optional;
 
     DependencyRule(String pattern, boolean allowAll) {
@@ -70,35 +73,66 @@ public class DependencyRule extends CodeElement {
         return this;
     }
 
+    /**
+     * @param rules the elements that must be used, directly or through other elements.
+     * @return this
+     */
+    public DependencyRule mustReach(CodeElement... rules) {
+        reach.must(rules);
+        return this;
+    }
+
+    /**
+     * @param rules the elements that must not be used, neither directly nor through other elements.
+     * @return this
+     */
+    public DependencyRule mustNotReach(CodeElement... rules) {
+        reach.mustNot(rules);
+        return this;
+    }
+
     public DependencyRule optional() {
         optional = true;
         return this;
     }
 
     public boolean isEmpty() {
-        return use.isEmpty() && usedBy.isEmpty();
+        return use.isEmpty() && usedBy.isEmpty() && reach.isEmpty();
     }
 
     public <T extends UsingElement<T>> Analyzer analyzer(Scope<T> scope, DependencyRules rules) {
         return new Analyzer<>(scope, rules);
     }
 
+    <T extends UsingElement<T>> Analyzer<T> analyzer(Scope<T> scope, DependencyRules rules, RuleCache<T> cache,
+                                                     List<T> elems) {
+        return new Analyzer<>(scope, rules, cache, elems);
+    }
+
     public class Analyzer<T extends UsingElement<T>> {
         final Dependencies result = new Dependencies();
         private final Scope<T> scope;
         private final DependencyRules rules;
+        private final RuleCache<T> cache;
         private final List<T> elems;
+        private final Map<String, Map<String, int[]>> packageVerdicts = new HashMap<>();
 
         public Analyzer(Scope<T> scope, DependencyRules rules) {
+            this(scope, rules, new RuleCache<>(rules), scope.matchingElements(pattern));
+        }
+
+        Analyzer(Scope<T> scope, DependencyRules rules, RuleCache<T> cache, List<T> elems) {
             this.scope = scope;
             this.rules = rules;
-            elems = scope.matchingElements(pattern);
+            this.cache = cache;
+            this.elems = elems;
         }
 
         public Dependencies analyze() {
             analyzeNotExisting();
             analyzeMissing();
             analyzeAllowAndDeny();
+            analyzeReach();
             return result;
         }
 
@@ -122,9 +156,14 @@ public class DependencyRule extends CodeElement {
 
         private void analyzeAllowAndDeny() {
             for (final T elem : elems) {
+                final String from = rules.packageVerdicts ? ownPackage(elem) : null;
+                final Map<String, int[]> verdicts = from == null
+                        ? null : packageVerdicts.computeIfAbsent(from, f -> new HashMap<>());
                 for (final T dep : elem.uses()) {
-                    final int allowed = calcAllowedSpecificity(elem, dep);
-                    final int denied = calcDeniedSpecificity(elem, dep);
+                    final int[] verdict = verdicts == null
+                            ? calcSpecificities(elem, dep) : verdict(verdicts, from, elem, dep);
+                    final int allowed = verdict[0];
+                    final int denied = verdict[1];
                     if (isAmbiguous(allowed, denied)) {
                         throw new AmbiguousRuleException(DependencyRule.this, elem, dep);
                     }
@@ -140,6 +179,93 @@ public class DependencyRule extends CodeElement {
             }
         }
 
+        private void analyzeReach() {
+            if (reach.isEmpty()) {
+                return;
+            }
+            final Reachability<T> reachability = cache.reachability(scope);
+            for (final T elem : elems) {
+                for (final LocationMatcher mustMatcher : reach.must) {
+                    for (final T must : scope.matchingElements(mustMatcher)) {
+                        if (must != elem && !reachability.reaches(elem, must)) {
+                            result.missing.with(pattern.specificity(), elem, must);
+                        }
+                    }
+                }
+                if (!reach.mustNot.isEmpty()) {
+                    for (final T reached : reachability.reachedTargets(elem)) {
+                        if (reached != elem && reached.mostSpecificMatch(reach.mustNot) > 0
+                                && !isAllowed(elem, reached)) {
+                            result.denied.with(pattern.specificity(), elem.getName(),
+                                    reachedVia(reachability, elem, reached), reached.getName());
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the elements used directly by 'elem' through which 'reached' is reached.
+         */
+        private Set<String> reachedVia(Reachability<T> reachability, T elem, T reached) {
+            final Set<String> vias = new TreeSet<>();
+            for (final T dep : elem.uses()) {
+                if (dep == reached || reachability.reaches(dep, reached)) {
+                    vias.add(dep.getName());
+                }
+            }
+            return vias;
+        }
+
+        /**
+         * @return the specificities of the usage, shared by all classes of the two packages
+         * if no rule can match some of their classes, but not others.
+         */
+        private int[] verdict(Map<String, int[]> verdicts, String from, T elem, T dep) {
+            final String to = ownPackage(dep);
+            if (to == null) {
+                return calcSpecificities(elem, dep);
+            }
+            final int[] verdict = verdicts.get(to);
+            if (verdict == NO_VERDICT) {
+                return calcSpecificities(elem, dep);
+            }
+            if (verdict != null) {
+                return verdict;
+            }
+            final int[] calculated = calcSpecificities(elem, dep);
+            verdicts.put(to, isPackageVerdict(from, to, dep) ? calculated : NO_VERDICT);
+            return calculated;
+        }
+
+        private boolean isPackageVerdict(String from, String to, T dep) {
+            if (use.distinguishesClassesIn(to) || cache.distinguishesClassesIn(to)) {
+                return false;
+            }
+            for (final DependencyRule rule : cache.matchingRules(dep)) {
+                if (rule.usedBy.distinguishesClassesIn(from)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the package the element's name is directly in or null if the name does not show it,
+         * e.g. because the element is a package itself.
+         */
+        private String ownPackage(T elem) {
+            final String name = elem.getName();
+            final String pack = elem.getPackageName();
+            final int len = pack.length();
+            return name.length() > len && name.charAt(len) == '.' && name.startsWith(pack)
+                    && name.indexOf('.', len + 1) < 0 ? pack : null;
+        }
+
+        private int[] calcSpecificities(T elem, T dep) {
+            return new int[]{calcAllowedSpecificity(elem, dep), calcDeniedSpecificity(elem, dep)};
+        }
+
         private boolean isAllowed(T elem, T dep) {
             return rules.allowIntraPackageDeps && elem.getPackageName().equals(dep.getPackageName());
         }
@@ -159,20 +285,21 @@ public class DependencyRule extends CodeElement {
         private int calcDeniedSpecificity(T thisPack, T dep) {
             return Math.max(
                     dep.mostSpecificMatch(use.mustNot),
-                    rules.mostSpecificUsageMatch(thisPack, dep, MUST_NOT_BE_USED));
+                    cache.usageSpecificity(thisPack, dep, MUST_NOT_BE_USED));
         }
 
         private int calcAllowedSpecificity(T thisPack, T dep) {
             final int useAllowed = Math.max(dep.mostSpecificMatch(use.must), dep.mostSpecificMatch(use.may));
             final int usedByAllowed = Math.max(
-                    rules.mostSpecificUsageMatch(thisPack, dep, MUST_BE_USED),
-                    rules.mostSpecificUsageMatch(thisPack, dep, MAY_BE_USED));
+                    cache.usageSpecificity(thisPack, dep, MUST_BE_USED),
+                    cache.usageSpecificity(thisPack, dep, MAY_BE_USED));
             return Math.max(useAllowed, usedByAllowed);
         }
     }
 
     @Override
     public String toString() {
-        return String.format("DependencyRule for %s%n  use:      %s%n  used by:  %s%n", pattern, use, usedBy);
+        return String.format("DependencyRule for %s%n  use:      %s%n  used by:  %s%n  reach:    %s%n",
+                pattern, use, usedBy, reach);
     }
 }
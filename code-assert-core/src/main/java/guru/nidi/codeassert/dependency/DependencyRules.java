@@ -16,13 +16,17 @@
 package guru.nidi.codeassert.dependency;
 
 
+import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
 import guru.nidi.codeassert.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public final class DependencyRules {
@@ -31,32 +35,83 @@ public final class DependencyRules {
     private static final ThreadLocal<DependencyRules> CURRENT = new ThreadLocal<>();
 
     private final List<DependencyRule> rules;
+    private final List<Layers> layers;
     private final boolean allowAll;
     private final boolean allowIntraPackageCycles;
     final boolean allowIntraPackageDeps;
+    private final int parallelism;
+    final boolean packageVerdicts;
 
-    private DependencyRules(List<DependencyRule> rules, boolean allowAll,
-                            boolean allowIntraPackageCycles, boolean allowIntraPackageDeps) {
+    private DependencyRules(List<DependencyRule> rules, List<Layers> layers, boolean allowAll,
+                            boolean allowIntraPackageCycles, boolean allowIntraPackageDeps, int parallelism,
+                            boolean packageVerdicts) {
         this.rules = rules;
+        this.layers = layers;
         this.allowAll = allowAll;
         this.allowIntraPackageCycles = allowIntraPackageCycles;
         this.allowIntraPackageDeps = allowIntraPackageDeps;
+        this.parallelism = parallelism;
+        this.packageVerdicts = packageVerdicts;
     }
 
     public static DependencyRules allowAll() {
-        return new DependencyRules(new ArrayList<>(), true, true, true);
+        return new DependencyRules(new ArrayList<>(), new ArrayList<>(), true, true, true, 1, false);
     }
 
     public static DependencyRules denyAll() {
-        return new DependencyRules(new ArrayList<>(), false, false, false);
+        return new DependencyRules(new ArrayList<>(), new ArrayList<>(), false, false, false, 1, false);
     }
 
     public DependencyRules allowIntraPackageCycles(boolean allowIntraPackageCycles) {
-        return new DependencyRules(rules, allowAll, allowIntraPackageCycles, allowIntraPackageDeps);
+        return new DependencyRules(rules, layers, allowAll, allowIntraPackageCycles, allowIntraPackageDeps, parallelism,
+                packageVerdicts);
     }
 
     public DependencyRules allowIntraPackageDependencies(boolean allowIntraPackageDeps) {
-        return new DependencyRules(rules, allowAll, allowIntraPackageCycles, allowIntraPackageDeps);
+        return new DependencyRules(rules, layers, allowAll, allowIntraPackageCycles, allowIntraPackageDeps, parallelism,
+                packageVerdicts);
+    }
+
+    /**
+     * Analyze the rules concurrently.
+     * The result is the same as with a sequential analysis.
+     *
+     * @param parallelism the number of threads to use, 1 analyzes everything in the calling thread.
+     * @return DependencyRules with the given parallelism.
+     */
+    public DependencyRules parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        return new DependencyRules(rules, layers, allowAll, allowIntraPackageCycles, allowIntraPackageDeps, parallelism,
+                packageVerdicts);
+    }
+
+    /**
+     * Decide the dependencies between classes once per pair of packages,
+     * as long as no rule can match some classes of one of the packages, but not others.
+     * Only pairs of packages involving such rules are decided class by class.
+     * The result is the same as when deciding every dependency on its own, which is the default.
+     *
+     * @param packageVerdicts if dependencies between classes should be decided per pair of packages.
+     * @return DependencyRules with the given setting.
+     */
+    public DependencyRules packageVerdicts(boolean packageVerdicts) {
+        return new DependencyRules(rules, layers, allowAll, allowIntraPackageCycles, allowIntraPackageDeps, parallelism,
+                packageVerdicts);
+    }
+
+    /**
+     * Define the layers of the architecture.
+     * Dependencies from a layer to a higher one are reported as denied.
+     *
+     * @param layers the layers, from the top to the bottom.
+     * @return the Layers, which are relaxed by default.
+     */
+    public Layers layers(CodeElement... layers) {
+        final Layers res = new Layers(layers);
+        this.layers.add(res);
+        return res;
     }
 
     public DependencyRule addRule(String pack) {
@@ -278,26 +333,105 @@ public final class DependencyRules {
 
     public <T extends UsingElement<T>> Dependencies analyzeRules(Scope<T> scope) {
         final Dependencies result = new Dependencies();
-        for (final DependencyRule rule : rules) {
-            result.merge(rule.analyzer(scope, this).analyze());
+        final RuleCache<T> cache = new RuleCache<>(this);
+        final Map<DependencyRule, List<T>> ruleElems = new HashMap<>();
+        final List<Layers.Check<T>> layerChecks = new ArrayList<>();
+        for (final Layers layer : layers) {
+            layerChecks.add(layer.check());
         }
         for (final T elem : scope) {
-            if (!elem.matchesAny(rules)) {
+            final List<DependencyRule> matching = cache.matchingRules(elem);
+            if (matching.isEmpty() && !isLayered(layerChecks, elem)) {
                 result.undefined.add(elem.getName());
             }
+            for (final DependencyRule rule : matching) {
+                final List<T> elems = ruleElems.computeIfAbsent(rule, r -> new ArrayList<>());
+                if (elems.isEmpty() || elems.get(elems.size() - 1) != elem) {
+                    elems.add(elem);
+                }
+            }
+        }
+        final List<Supplier<Dependencies>> analyses = new ArrayList<>();
+        for (final DependencyRule rule : rules) {
+            final List<T> elems = ruleElems.getOrDefault(rule, new ArrayList<>());
+            analyses.add(() -> rule.analyzer(scope, this, cache, elems).analyze());
+        }
+        for (final Dependencies dependencies : analyze(analyses)) {
+            result.merge(dependencies);
         }
         result.normalize();
+        //after normalizing, so explicitly or generally allowed dependencies do not hide layer violations
+        for (final Layers.Check<T> check : layerChecks) {
+            check.analyze(scope, result);
+        }
         result.cycles.addAll(new Tarjan<T>().analyzeCycles(scope, allowIntraPackageCycles));
         return result;
     }
 
-    <T extends UsingElement<T>> int mostSpecificUsageMatch(T from, T to, RuleAccessor accessor) {
-        int s = 0;
+    private static <T extends UsingElement<T>> boolean isLayered(List<Layers.Check<T>> layerChecks, T elem) {
+        for (final Layers.Check<T> check : layerChecks) {
+            if (check.isLayered(elem)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param analyses the analyses of the rules
+     * @return the results of the analyses, in the same order.
+     * If an analysis fails, the exception of the first failed analysis is thrown, like it would be sequentially.
+     */
+    private List<Dependencies> analyze(List<Supplier<Dependencies>> analyses) {
+        final List<Dependencies> res = new ArrayList<>();
+        if (parallelism == 1 || analyses.size() < 2) {
+            for (final Supplier<Dependencies> analysis : analyses) {
+                res.add(analysis.get());
+            }
+            return res;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<ForkJoinTask<Dependencies>> tasks = new ArrayList<>();
+            for (final Supplier<Dependencies> analysis : analyses) {
+                tasks.add(pool.submit(analysis::get));
+            }
+            for (final ForkJoinTask<Dependencies> task : tasks) {
+                res.add(task.join());
+            }
+            return res;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    Set<LocationMatcher> reachTargets() {
+        final Set<LocationMatcher> targets = new HashSet<>();
+        for (final DependencyRule rule : rules) {
+            targets.addAll(rule.reach.must);
+            targets.addAll(rule.reach.mustNot);
+        }
+        return targets;
+    }
+
+    boolean distinguishesClassesIn(String pack) {
         for (final DependencyRule rule : rules) {
-            if (rule.matches(to)) {
-                s = Math.max(s, from.mostSpecificMatch(accessor.access(rule)));
+            if (rule.pattern.distinguishesClassesIn(pack)) {
+                return true;
             }
         }
-        return s;
+        return false;
+    }
+
+    /**
+     * @return a new index of the rules by their patterns.
+     * It is built at the start of each analysis, so it always reflects the current rules.
+     */
+    LocationMatcherIndex<DependencyRule> ruleIndex() {
+        final LocationMatcherIndex<DependencyRule> index = new LocationMatcherIndex<>();
+        for (final DependencyRule rule : rules) {
+            index.add(rule.pattern, rule);
+        }
+        return index;
     }
 }
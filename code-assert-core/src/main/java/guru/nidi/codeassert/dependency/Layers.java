@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
+import guru.nidi.codeassert.model.UsingElement;
+
+import java.util.*;
+
+/**
+ * Layers of an architecture, ordered from the top to the bottom.
+ * An element may use elements of its own layer and of the layers below it,
+ * in strict mode only of the layer directly below it.
+ * Elements that are not in any layer are not checked.
+ * Every element is assigned its layer once, so checking a dependency is a comparison of two numbers.
+ */
+public final class Layers {
+    private static final int UNKNOWN = -2;
+    private static final int NONE = -1;
+
+    private final List<LocationMatcher> layers = new ArrayList<>();
+    private final LocationMatcherIndex<Integer> index = new LocationMatcherIndex<>();
+    private boolean strict;
+
+    Layers(CodeElement... layers) {
+        for (final CodeElement layer : layers) {
+            index.add(layer.pattern, this.layers.size());
+            this.layers.add(layer.pattern);
+        }
+    }
+
+    /**
+     * @return this, where a layer may only use the layer directly below it.
+     */
+    public Layers strict() {
+        strict = true;
+        return this;
+    }
+
+    /**
+     * @return this, where a layer may use all layers below it.
+     */
+    public Layers relaxed() {
+        strict = false;
+        return this;
+    }
+
+    <T extends UsingElement<T>> Check<T> check() {
+        return new Check<>();
+    }
+
+    private boolean allows(int from, int to) {
+        return from < 0 || to < 0 || from == to || (strict ? to == from + 1 : to > from);
+    }
+
+    /**
+     * The check of one analysis, it remembers the layers of the elements.
+     *
+     * @param <T> the type of the elements
+     */
+    final class Check<T extends UsingElement<T>> {
+        private final Map<String, Integer> layersByName = new HashMap<>();
+        private final boolean[] found = new boolean[layers.size()];
+        private int[] layersById = new int[0];
+
+        boolean isLayered(T elem) {
+            return layerOf(elem) >= 0;
+        }
+
+        void analyze(Iterable<T> elems, Dependencies result) {
+            for (final T elem : elems) {
+                final int from = layerOf(elem);
+                if (from >= 0) {
+                    found[from] = true;
+                    for (final T dep : elem.uses()) {
+                        if (!allows(from, layerOf(dep))) {
+                            result.denied.with(layers.get(from).specificity(), elem, dep);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < found.length; i++) {
+                if (!found[i]) {
+                    result.notExisting.add(layers.get(i));
+                }
+            }
+        }
+
+        private int layerOf(T elem) {
+            final int id = elem.getId();
+            if (id < 0) {
+                return layersByName.computeIfAbsent(elem.getName(), name -> assign(elem));
+            }
+            if (id >= layersById.length) {
+                final int oldLength = layersById.length;
+                layersById = Arrays.copyOf(layersById, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(layersById, oldLength, layersById.length, UNKNOWN);
+            }
+            if (layersById[id] == UNKNOWN) {
+                layersById[id] = assign(elem);
+            }
+            return layersById[id];
+        }
+
+        /**
+         * @return the layer with the most specific pattern matching the element, the upper one if there are several.
+         */
+        private int assign(T elem) {
+            int layer = NONE;
+            for (final int i : elem.matchedBy(index)) {
+                if (layer == NONE || layers.get(i).specificity() > layers.get(layer).specificity()
+                        || (layers.get(i).specificity() == layers.get(layer).specificity() && i < layer)) {
+                    layer = i;
+                }
+            }
+            return layer;
+        }
+    }
+}
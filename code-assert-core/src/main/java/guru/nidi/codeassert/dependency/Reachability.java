@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.model.UsingElement;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Answers if an element transitively uses a target element.
+ * The graph is condensed into its strongly connected components, which are numbered in reverse topological order.
+ * Each component then gets a bit set of the components with targets that are reachable from it.
+ * Building the index is one pass over the graph, a query is one bit lookup.
+ * Only components containing a target get a bit, so the bit sets stay small if there are few targets.
+ * A component that reaches no more targets than one of its successors shares the successor's bit set,
+ * so chains and trees of components without targets cost no memory for bit sets.
+ *
+ * @param <T> the type of the elements
+ */
+public final class Reachability<T extends UsingElement<T>> {
+    private final List<T> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodesByName = new HashMap<>();
+    private int[] nodesById = new int[0];
+    private int[][] edges;
+    private int[] component;
+    private boolean[] target;
+    private int[] column;
+    private int[][] columnNodes;
+    private long[][] reach;
+
+    private Reachability() {
+    }
+
+    /**
+     * @param elems the elements to start from, all elements used by them are included.
+     * @param <T>   the type of the elements
+     * @return an index with every element as target.
+     */
+    public static <T extends UsingElement<T>> Reachability<T> of(Iterable<T> elems) {
+        return of(elems, elem -> true);
+    }
+
+    /**
+     * @param elems    the elements to start from, all elements used by them are included.
+     * @param isTarget which elements can be reached in queries.
+     * @param <T>      the type of the elements
+     * @return an index for the given targets.
+     */
+    public static <T extends UsingElement<T>> Reachability<T> of(Iterable<T> elems, Predicate<T> isTarget) {
+        final Reachability<T> res = new Reachability<>();
+        res.build(elems);
+        res.close(res.condense(), isTarget);
+        return res;
+    }
+
+    /**
+     * @param from the using element
+     * @param to   a target element
+     * @return if 'from' uses 'to' directly or indirectly.
+     * An element only reaches itself if it is part of a cycle.
+     */
+    public boolean reaches(T from, T to) {
+        final int v = find(from);
+        final int w = find(to);
+        if (v < 0 || w < 0) {
+            return false;
+        }
+        if (!target[w]) {
+            throw new IllegalArgumentException(to.getName() + " is not a target of this index.");
+        }
+        final long[] row = reach[component[v]];
+        final int col = column[component[w]];
+        return row != null && (row[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * @param from the using element
+     * @return all targets that 'from' uses directly or indirectly.
+     */
+    public List<T> reachedTargets(T from) {
+        final int v = find(from);
+        final long[] row = v < 0 ? null : reach[component[v]];
+        if (row == null) {
+            return Collections.emptyList();
+        }
+        final List<T> res = new ArrayList<>();
+        for (int word = 0; word < row.length; word++) {
+            for (long bits = row[word]; bits != 0; bits &= bits - 1) {
+                for (final int w : columnNodes[(word << 6) + Long.numberOfTrailingZeros(bits)]) {
+                    res.add(nodes.get(w));
+                }
+            }
+        }
+        return res;
+    }
+
+    private void build(Iterable<T> elems) {
+        for (final T elem : elems) {
+            node(elem);
+        }
+        final List<int[]> es = new ArrayList<>();
+        for (int v = 0; v < nodes.size(); v++) {
+            final Collection<T> uses = nodes.get(v).uses();
+            final int[] vEdges = new int[uses.size()];
+            int i = 0;
+            for (final T dep : uses) {
+                vEdges[i++] = node(dep);
+            }
+            es.add(vEdges);
+        }
+        edges = es.toArray(new int[0][]);
+    }
+
+    private int find(T elem) {
+        final int id = elem.getId();
+        if (id >= 0) {
+            return id < nodesById.length ? nodesById[id] : -1;
+        }
+        final Integer v = nodesByName.get(elem.getName());
+        return v == null ? -1 : v;
+    }
+
+    private int node(T elem) {
+        final int found = find(elem);
+        if (found >= 0) {
+            return found;
+        }
+        final int v = nodes.size();
+        nodes.add(elem);
+        final int id = elem.getId();
+        if (id >= 0) {
+            if (id >= nodesById.length) {
+                final int oldLength = nodesById.length;
+                nodesById = Arrays.copyOf(nodesById, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(nodesById, oldLength, nodesById.length, -1);
+            }
+            nodesById[id] = v;
+        } else {
+            nodesByName.put(elem.getName(), v);
+        }
+        return v;
+    }
+
+    /**
+     * Iterative Tarjan, see {@link Tarjan}.
+     * A component is completed after all components reachable from it, so they have smaller numbers.
+     *
+     * @return the number of components.
+     */
+    private int condense() {
+        final int n = nodes.size();
+        final int[] index = new int[n];
+        final int[] lowlink = new int[n];
+        final int[] edgePos = new int[n];
+        final boolean[] onStack = new boolean[n];
+        final int[] stack = new int[n];
+        final int[] calls = new int[n];
+        Arrays.fill(index, -1);
+        component = new int[n];
+        int stackSize = 0;
+        int counter = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int callsSize = 0;
+            index[root] = counter;
+            lowlink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            calls[callsSize++] = root;
+            while (callsSize > 0) {
+                final int v = calls[callsSize - 1];
+                if (edgePos[v] < edges[v].length) {
+                    final int w = edges[v][edgePos[v]++];
+                    if (index[w] < 0) {
+                        index[w] = counter;
+                        lowlink[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        calls[callsSize++] = w;
+                    } else if (onStack[w]) {
+                        lowlink[v] = Math.min(lowlink[v], index[w]);
+                    }
+                } else {
+                    callsSize--;
+                    if (lowlink[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            component[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+                    if (callsSize > 0) {
+                        final int u = calls[callsSize - 1];
+                        lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    private void close(int components, Predicate<T> isTarget) {
+        final int n = nodes.size();
+        target = new boolean[n];
+        column = new int[components];
+        Arrays.fill(column, -1);
+        final int[] targetCount = new int[components];
+        int columns = 0;
+        for (int v = 0; v < n; v++) {
+            if (isTarget.test(nodes.get(v))) {
+                target[v] = true;
+                final int c = component[v];
+                if (column[c] < 0) {
+                    column[c] = columns++;
+                }
+                targetCount[c]++;
+            }
+        }
+        columnNodes = new int[columns][];
+        for (int c = 0; c < components; c++) {
+            if (column[c] >= 0) {
+                columnNodes[column[c]] = new int[targetCount[c]];
+                targetCount[c] = 0;
+            }
+        }
+        final int[] start = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            start[component[v] + 1]++;
+            if (target[v]) {
+                final int c = component[v];
+                columnNodes[column[c]][targetCount[c]++] = v;
+            }
+        }
+        for (int c = 0; c < components; c++) {
+            start[c + 1] += start[c];
+        }
+        final int[] members = new int[n];
+        final int[] pos = Arrays.copyOf(start, components);
+        for (int v = 0; v < n; v++) {
+            members[pos[component[v]]++] = v;
+        }
+        final int words = (columns + 63) >>> 6;
+        reach = new long[components][];
+        for (int c = 0; c < components; c++) {
+            //a row is shared with a successor until it needs bits of its own
+            long[] row = null;
+            boolean shared = false;
+            boolean cyclic = false;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                for (final int w : edges[members[i]]) {
+                    final int d = component[w];
+                    if (d == c) {
+                        cyclic = true;
+                        continue;
+                    }
+                    final long[] other = reach[d];
+                    if (row == null) {
+                        row = other;
+                        shared = other != null;
+                    } else if (other != null && !containsAll(row, other)) {
+                        row = shared ? row.clone() : row;
+                        shared = false;
+                        or(row, other);
+                    }
+                    if (column[d] >= 0 && !isSet(row, column[d])) {
+                        row = row == null ? new long[words] : shared ? row.clone() : row;
+                        shared = false;
+                        set(row, column[d]);
+                    }
+                }
+            }
+            if (cyclic && column[c] >= 0 && !isSet(row, column[c])) {
+                row = row == null ? new long[words] : shared ? row.clone() : row;
+                set(row, column[c]);
+            }
+            reach[c] = row;
+        }
+        edges = null;
+    }
+
+    private static boolean isSet(long[] row, int bit) {
+        return row != null && (row[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static void set(long[] row, int bit) {
+        row[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean containsAll(long[] row, long[] other) {
+        if (row == other) {
+            return true;
+        }
+        for (int i = 0; i < row.length; i++) {
+            if ((other[i] & ~row[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void or(long[] row, long[] other) {
+        for (int i = 0; i < row.length; i++) {
+            row[i] |= other[i];
+        }
+    }
+}
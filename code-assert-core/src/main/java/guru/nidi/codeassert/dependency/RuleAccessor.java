@@ -18,11 +18,20 @@ package guru.nidi.codeassert.dependency;
 import guru.nidi.codeassert.config.LocationMatcher;
 
 import java.util.Set;
+import java.util.function.Function;
 
-interface RuleAccessor {
-    RuleAccessor MAY_BE_USED = rule -> rule.usedBy.may;
-    RuleAccessor MUST_BE_USED = rule -> rule.usedBy.must;
-    RuleAccessor MUST_NOT_BE_USED = rule -> rule.usedBy.mustNot;
+enum RuleAccessor {
+    MAY_BE_USED(rule -> rule.usedBy.may),
+    MUST_BE_USED(rule -> rule.usedBy.must),
+    MUST_NOT_BE_USED(rule -> rule.usedBy.mustNot);
 
-    Set<LocationMatcher> access(DependencyRule rule);
+    private final Function<DependencyRule, Set<LocationMatcher>> accessor;
+
+    RuleAccessor(Function<DependencyRule, Set<LocationMatcher>> accessor) {
+        this.accessor = accessor;
+    }
+
+    Set<LocationMatcher> access(DependencyRule rule) {
+        return accessor.apply(rule);
+    }
 }
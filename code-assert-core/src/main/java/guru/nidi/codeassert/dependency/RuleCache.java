@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
+import guru.nidi.codeassert.model.UsingElement;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the rule lookups of one {@link DependencyRules#analyzeRules} call.
+ * The rules matching an element do not depend on the rule being analyzed, so they are only calculated once.
+ * The specificity of a usage is not memoized per usage, as there are as many usages as edges in the model.
+ * It can be used by concurrent analyses.
+ *
+ * @param <T> the type of the elements
+ */
+final class RuleCache<T extends UsingElement<T>> {
+    private final DependencyRules rules;
+    private final LocationMatcherIndex<DependencyRule> index;
+    private final Map<T, List<DependencyRule>> matchingRules = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> distinguishing = new ConcurrentHashMap<>();
+    private Reachability<T> reachability;
+
+    RuleCache(DependencyRules rules) {
+        this.rules = rules;
+        index = rules.ruleIndex();
+    }
+
+    List<DependencyRule> matchingRules(T elem) {
+        return matchingRules.computeIfAbsent(elem, e -> e.matchedBy(index));
+    }
+
+    /**
+     * @param elems the elements to index
+     * @return the reachability index of the elements, with all elements matching a reach rule as targets.
+     * It is only built once.
+     */
+    synchronized Reachability<T> reachability(Iterable<T> elems) {
+        if (reachability == null) {
+            final Set<LocationMatcher> targets = rules.reachTargets();
+            reachability = Reachability.of(elems, elem -> elem.mostSpecificMatch(targets) > 0);
+        }
+        return reachability;
+    }
+
+    /**
+     * @param pack a package name
+     * @return if the pattern of a rule can match some classes of the package, but not others.
+     */
+    boolean distinguishesClassesIn(String pack) {
+        return distinguishing.computeIfAbsent(pack, rules::distinguishesClassesIn);
+    }
+
+    /**
+     * @param from     the using element
+     * @param to       the used element
+     * @param accessor which usedBy part of the used element's rules to check
+     * @return the highest specificity of a usedBy matcher of the rules matching 'to' that matches 'from'.
+     */
+    int usageSpecificity(T from, T to, RuleAccessor accessor) {
+        int s = 0;
+        for (final DependencyRule rule : matchingRules(to)) {
+            s = Math.max(s, from.mostSpecificMatch(accessor.access(rule)));
+        }
+        return s;
+    }
+}
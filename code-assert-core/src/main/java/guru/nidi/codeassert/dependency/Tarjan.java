@@ -19,25 +19,36 @@ import guru.nidi.codeassert.model.UsingElement;
 
 import java.util.*;
 
+/**
+ * Finds the strongly connected components with Tarjan's algorithm.
+ * The algorithm is iterative and uses int arrays indexed by node number,
+ * so it does not grow the thread stack, even on very deep graphs.
+ */
 class Tarjan<T extends UsingElement<T>> {
-    private int index;
-    private final Stack<T> stack = new Stack<>();
-    private final Map<String, Node> nodes = new HashMap<>();
+    private final List<T> elems = new ArrayList<>();
+    private final Map<String, Integer> nodesByName = new HashMap<>();
     private final Set<DependencyMap> result = new HashSet<>();
-
-    private static class Node {
-        int index = -1;
-        int lowlink;
-        boolean onStack;
-    }
+    private int[] nodesById = new int[0];
+    private int[] index = new int[16];
+    private int[] lowlink = new int[16];
+    private int[] component = new int[16];
+    private int[][] edges = new int[16][];
+    private int[] edgePos = new int[16];
+    private boolean[] onStack = new boolean[16];
+    private int[] stack = new int[16];
+    private int stackSize;
+    private int[] calls = new int[16];
+    private int callsSize;
+    private int counter;
+    private int components;
 
     Set<DependencyMap> analyzeCycles(Iterable<T> elems, boolean allowIntraPackageCycles) {
-        index = 0;
         final Map<String, T> map = new HashMap<>();
         for (final T elem : elems) {
             map.put(elem.getName(), elem);
-            if (node(elem).index < 0) {
-                strongConnect(elem);
+            final int v = node(elem);
+            if (index[v] < 0) {
+                strongConnect(v);
             }
         }
         return removeInnerCycles(map, true, allowIntraPackageCycles);
@@ -53,7 +64,8 @@ class Tarjan<T extends UsingElement<T>> {
                     final boolean innerClassOk = innerClasses && areInnerClasses(from, to);
                     final boolean intraPackageOk = intraPackages && areSamePackage(elems, from, to);
                     if (!innerClassOk && !intraPackageOk) {
-                        filtered.with(entry.getValue().getSpecificity(), from, entry.getValue().getVias(), to);
+                        final DependencyMap.Info info = entry.getValue();
+                        filtered.with(info.getSpecificity(), from, info.getVias(), to, info.getCount());
                     }
                 }
             }
@@ -72,66 +84,124 @@ class Tarjan<T extends UsingElement<T>> {
         return c1.startsWith(c2 + "$") || c2.startsWith(c1 + "$");
     }
 
-    private Node node(T elem) {
-        Node node = nodes.get(elem.getName());
-        if (node == null) {
-            node = new Node();
-            nodes.put(elem.getName(), node);
+    /**
+     * @param elem an element
+     * @return the number of the element's node, a new node is created if needed.
+     */
+    private int node(T elem) {
+        final int id = elem.getId();
+        if (id >= 0 && id < nodesById.length && nodesById[id] >= 0) {
+            return nodesById[id];
+        }
+        if (id < 0) {
+            final Integer v = nodesByName.get(elem.getName());
+            if (v != null) {
+                return v;
+            }
         }
-        return node;
+        final int v = elems.size();
+        elems.add(elem);
+        if (id >= 0) {
+            if (id >= nodesById.length) {
+                final int oldLength = nodesById.length;
+                nodesById = Arrays.copyOf(nodesById, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(nodesById, oldLength, nodesById.length, -1);
+            }
+            nodesById[id] = v;
+        } else {
+            nodesByName.put(elem.getName(), v);
+        }
+        if (v == index.length) {
+            grow();
+        }
+        index[v] = -1;
+        return v;
     }
 
-    private void strongConnect(T elem) {
-        final Node v = init(elem);
-        processUses(elem, v);
+    private void grow() {
+        final int length = index.length * 2;
+        index = Arrays.copyOf(index, length);
+        lowlink = Arrays.copyOf(lowlink, length);
+        component = Arrays.copyOf(component, length);
+        edges = Arrays.copyOf(edges, length);
+        edgePos = Arrays.copyOf(edgePos, length);
+        onStack = Arrays.copyOf(onStack, length);
+    }
 
-        if (v.lowlink == v.index) {
-            final Set<T> group = createGroup(elem);
-            if (group.size() > 1) {
-                addCycle(group);
+    private void strongConnect(int root) {
+        visit(root);
+        while (callsSize > 0) {
+            final int v = calls[callsSize - 1];
+            if (edgePos[v] < edges[v].length) {
+                final int w = edges[v][edgePos[v]++];
+                if (index[w] < 0) {
+                    visit(w);
+                } else if (onStack[w]) {
+                    lowlink[v] = Math.min(lowlink[v], index[w]);
+                }
+            } else {
+                callsSize--;
+                if (lowlink[v] == index[v]) {
+                    createGroup(v);
+                }
+                if (callsSize > 0) {
+                    final int u = calls[callsSize - 1];
+                    lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+                }
             }
         }
     }
 
-    private Node init(T elem) {
-        final Node v = node(elem);
-        v.index = index;
-        v.lowlink = index;
-        index++;
-        stack.push(elem);
-        v.onStack = true;
-        return v;
+    private void visit(int v) {
+        index[v] = counter;
+        lowlink[v] = counter;
+        counter++;
+        stack = push(stack, stackSize++, v);
+        onStack[v] = true;
+        final Collection<T> uses = elems.get(v).uses();
+        final int[] vEdges = new int[uses.size()];
+        int i = 0;
+        for (final T dep : uses) {
+            vEdges[i++] = node(dep);
+        }
+        edges[v] = vEdges;
+        edgePos[v] = 0;
+        calls = push(calls, callsSize++, v);
     }
 
-    private void processUses(T elem, Node v) {
-        for (final T dep : elem.uses()) {
-            final Node w = node(dep);
-            if (w.index < 0) {
-                strongConnect(dep);
-                v.lowlink = Math.min(v.lowlink, w.lowlink);
-            } else if (w.onStack) {
-                v.lowlink = Math.min(v.lowlink, w.index);
-            }
-        }
+    private static int[] push(int[] array, int pos, int value) {
+        final int[] res = pos == array.length ? Arrays.copyOf(array, pos * 2) : array;
+        res[pos] = value;
+        return res;
     }
 
-    private Set<T> createGroup(T elem) {
-        final Set<T> group = new HashSet<>();
-        T w;
+    private void createGroup(int v) {
+        final int c = ++components;
+        int start = stackSize;
+        int w;
         do {
-            w = stack.pop();
-            node(w).onStack = false;
-            group.add(w);
-        } while (!elem.equals(w));
-        return group;
+            w = stack[--start];
+            onStack[w] = false;
+            component[w] = c;
+        } while (w != v);
+        if (stackSize - start > 1) {
+            addCycle(start, c);
+        }
+        for (int i = start; i < stackSize; i++) {
+            edges[stack[i]] = null;
+        }
+        stackSize = start;
     }
 
-    private void addCycle(Set<T> group) {
+    private void addCycle(int start, int c) {
         final DependencyMap g = new DependencyMap();
-        for (final T elem : group) {
-            for (final T dep : elem.uses()) {
-                if (group.contains(dep)) {
-                    g.with(0, elem, dep);
+        for (int i = start; i < stackSize; i++) {
+            final int v = stack[i];
+            for (final int w : edges[v]) {
+                if (component[w] == c) {
+                    final T from = elems.get(v);
+                    final T to = elems.get(w);
+                    g.with(0, from.getName(), from.usedVia(to), to.getName(), from.usageCount(to));
                 }
             }
         }
@@ -33,6 +33,20 @@ class Usage {
         return u;
     }
 
+    boolean distinguishesClassesIn(String pack) {
+        return distinguishesClassesIn(must, pack) || distinguishesClassesIn(may, pack)
+                || distinguishesClassesIn(mustNot, pack);
+    }
+
+    private static boolean distinguishesClassesIn(Set<LocationMatcher> matchers, String pack) {
+        for (final LocationMatcher matcher : matchers) {
+            if (matcher.distinguishesClassesIn(pack)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     void must(CodeElement... rules) {
         for (final CodeElement rule : rules) {
             must.add(rule.pattern);
@@ -19,6 +19,8 @@ import guru.nidi.codeassert.AnalyzerResult;
 import guru.nidi.codeassert.dependency.*;
 import guru.nidi.codeassert.jacoco.CoverageMatcher;
 import guru.nidi.codeassert.jacoco.JacocoResult;
+import guru.nidi.codeassert.metrics.MetricsMatcher;
+import guru.nidi.codeassert.metrics.MetricsResult;
 import guru.nidi.codeassert.model.*;
 import org.hamcrest.Matcher;
 
@@ -54,6 +56,10 @@ public final class CodeAssertCoreMatchers {
         return new DependencyCycleMatcher();
     }
 
+    public static Matcher<DependencyResult> hasNoCycles(CycleAnalysis analysis) {
+        return new DependencyCycleMatcher(analysis);
+    }
+
     public static <T extends AnalyzerResult<?>> Matcher<T> hasNoUnusedActions() {
         return new UnusedActionsMatcher<>();
     }
@@ -61,4 +67,8 @@ public final class CodeAssertCoreMatchers {
     public static Matcher<JacocoResult> hasEnoughCoverage() {
         return new CoverageMatcher();
     }
+
+    public static Matcher<MetricsResult> hasAcceptableMetrics() {
+        return new MetricsMatcher();
+    }
 }
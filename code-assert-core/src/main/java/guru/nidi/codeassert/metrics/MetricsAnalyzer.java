@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.Analyzer;
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import guru.nidi.codeassert.config.UsageCounter;
+import guru.nidi.codeassert.config.ValuedLocation;
+import guru.nidi.codeassert.model.Model;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+public class MetricsAnalyzer implements Analyzer<List<ValuedLocation>> {
+    private final Model model;
+    private final MetricsCollector collector;
+
+    public MetricsAnalyzer(AnalyzerConfig config, MetricsCollector collector) {
+        this(Model.from(config.getClasses()).read(), collector);
+    }
+
+    public MetricsAnalyzer(Model model, MetricsCollector collector) {
+        this.model = model;
+        this.collector = collector;
+    }
+
+    @Override
+    public MetricsResult analyze() {
+        final UsageCounter counter = new UsageCounter();
+        final List<ValuedLocation> locations = PackageMetrics.of(model).stream()
+                .map(m -> m.toValuedLocation(collector.metrics))
+                .filter(vl -> counter.accept(collector.accept(vl)))
+                .collect(toList());
+        collector.printUnusedWarning(counter);
+        return new MetricsResult(this, locations, collector.unusedActions(counter), collector.metrics);
+    }
+}
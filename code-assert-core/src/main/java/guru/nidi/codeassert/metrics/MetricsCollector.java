@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.config.*;
+
+import java.util.List;
+
+import static guru.nidi.codeassert.util.ListUtils.andJoin;
+
+public class MetricsCollector extends BaseCollector<ValuedLocation, Maxima, MetricsCollector> {
+    final PackageMetric[] metrics;
+
+    public MetricsCollector(PackageMetric... metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public MetricsCollector config(final CollectorConfig<Maxima>... configs) {
+        for (final CollectorConfig<Maxima> config : configs) {
+            for (final Maxima maxima : config.actions) {
+                if (maxima.getValueCount() > metrics.length) {
+                    throw new IllegalArgumentException("Given " + maxima.getValueCount()
+                            + " values, but expected only " + metrics.length);
+                }
+            }
+        }
+
+        return new MetricsCollector(metrics) {
+            @Override
+            public ActionResult accept(ValuedLocation issue) {
+                return accept(issue, MetricsCollector.this, configs);
+            }
+
+            public List<Maxima> unused(UsageCounter counter) {
+                return unused(counter, MetricsCollector.this, configs);
+            }
+
+            @Override
+            public String toString() {
+                return andJoin(MetricsCollector.this, configs);
+            }
+        };
+    }
+
+    @Override
+    public ActionResult accept(ValuedLocation issue) {
+        return ActionResult.reject(null, 1);
+    }
+
+    @Override
+    protected ActionResult doAccept(ValuedLocation issue, Maxima action) {
+        return action.accept(issue);
+    }
+
+    @Override
+    public List<Maxima> unused(UsageCounter counter) {
+        return unusedNullAction(counter, true);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsCollector";
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.config.ValuedLocation;
+import guru.nidi.codeassert.util.ResultMatcher;
+import org.hamcrest.Description;
+
+import static java.lang.System.lineSeparator;
+
+public class MetricsMatcher extends ResultMatcher<MetricsResult, ValuedLocation> {
+    public void describeTo(Description description) {
+        description.appendText("Has acceptable package metrics.");
+    }
+
+    @Override
+    protected void describeMismatchSafely(MetricsResult item, Description description) {
+        description.appendText(String.format("Found packages exceeding metric limits:%n"));
+        description.appendText(pad("Analyzed metrics:", 60));
+        for (final PackageMetric metric : item.getMetrics()) {
+            description.appendText(pad(metric.toString(), 19));
+        }
+        for (final ValuedLocation metrics : item.findings()) {
+            description.appendText(lineSeparator());
+            description.appendText(pad(metrics.getPack(), 60));
+            for (int i = 0; i < metrics.getValues().length; i++) {
+                description.appendText(pad(String.format("%6.2f / %6s",
+                        metrics.getValues()[i], printAppliedValue(metrics.getAppliedLimits()[i])), 19));
+            }
+        }
+    }
+
+    private String printAppliedValue(double value) {
+        return value == -1 ? "na" : String.format("%6.2f", value);
+    }
+
+    private String pad(String s, int len) {
+        if (s.length() > len) {
+            return s.substring(0, len);
+        }
+        final StringBuilder p = new StringBuilder(s);
+        while (p.length() < len) {
+            p.append(' ');
+        }
+        return p.toString();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.config.ValuedLocation;
+import guru.nidi.codeassert.model.CodeClass;
+import guru.nidi.codeassert.model.CodePackage;
+import guru.nidi.codeassert.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * The coupling metrics of a package as defined by Robert C. Martin and computed by JDepend.
+ */
+public class PackageMetrics {
+    private final String name;
+    private final int classes;
+    private final int abstractClasses;
+    private final int afferentCoupling;
+    private final int efferentCoupling;
+
+    public PackageMetrics(String name, int classes, int abstractClasses, int afferentCoupling, int efferentCoupling) {
+        this.name = name;
+        this.classes = classes;
+        this.abstractClasses = abstractClasses;
+        this.afferentCoupling = afferentCoupling;
+        this.efferentCoupling = efferentCoupling;
+    }
+
+    /**
+     * Compute the metrics of all own packages of the model in one pass over its packages and classes.
+     *
+     * @param model the model
+     * @return the metrics, ordered by package name.
+     */
+    public static List<PackageMetrics> of(Model model) {
+        final List<PackageMetrics> res = new ArrayList<>();
+        for (final CodePackage pack : model.getPackages()) {
+            if (model.isOwnPackage(pack)) {
+                res.add(of(pack));
+            }
+        }
+        res.sort(comparing(PackageMetrics::getName));
+        return res;
+    }
+
+    public static PackageMetrics of(CodePackage pack) {
+        int classes = 0;
+        int abstractClasses = 0;
+        for (final CodeClass clazz : pack.getClasses()) {
+            if (clazz.isParsed()) {
+                classes++;
+                if (!clazz.isConcrete()) {
+                    abstractClasses++;
+                }
+            }
+        }
+        return new PackageMetrics(pack.getName(), classes, abstractClasses, pack.usedBy().size(), pack.uses().size());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getClassCount() {
+        return classes;
+    }
+
+    public int getAbstractClassCount() {
+        return abstractClasses;
+    }
+
+    /**
+     * @return the number of other packages that use this package (Ca).
+     */
+    public int getAfferentCoupling() {
+        return afferentCoupling;
+    }
+
+    /**
+     * @return the number of other packages this package uses (Ce).
+     */
+    public int getEfferentCoupling() {
+        return efferentCoupling;
+    }
+
+    /**
+     * @return Ce / (Ca + Ce), from 0 (maximally stable) to 1 (maximally unstable).
+     */
+    public double getInstability() {
+        final int total = afferentCoupling + efferentCoupling;
+        return total == 0 ? 0 : (double) efferentCoupling / total;
+    }
+
+    /**
+     * @return the ratio of abstract classes and interfaces to all classes, from 0 to 1.
+     */
+    public double getAbstractness() {
+        return classes == 0 ? 0 : (double) abstractClasses / classes;
+    }
+
+    /**
+     * @return the distance from the main sequence A + I = 1, from 0 (on the main sequence) to 1.
+     */
+    public double getDistance() {
+        return Math.abs(getAbstractness() + getInstability() - 1);
+    }
+
+    public double value(PackageMetric metric) {
+        switch (metric) {
+            case AFFERENT_COUPLING:
+                return afferentCoupling;
+            case EFFERENT_COUPLING:
+                return efferentCoupling;
+            case INSTABILITY:
+                return getInstability();
+            case ABSTRACTNESS:
+                return getAbstractness();
+            case DISTANCE:
+                return getDistance();
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    public ValuedLocation toValuedLocation(PackageMetric[] metrics) {
+        final double[] values = new double[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            values[i] = value(metrics[i]);
+        }
+        return new ValuedLocation(name, "", values);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: Ca=%d Ce=%d I=%.2f A=%.2f D=%.2f", name, afferentCoupling, efferentCoupling,
+                getInstability(), getAbstractness(), getDistance());
+    }
+}
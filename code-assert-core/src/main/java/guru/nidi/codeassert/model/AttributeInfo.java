@@ -15,26 +15,26 @@
  */
 package guru.nidi.codeassert.model;
 
-import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 final class AttributeInfo {
     final String name;
-    final byte[] value;
+    final ByteBuffer value;
 
-    private AttributeInfo(String name, byte[] value) {
+    private AttributeInfo(String name, ByteBuffer value) {
         this.name = name;
         this.value = value;
     }
 
-    static AttributeInfo fromData(DataInputStream in, ConstantPool constantPool) throws IOException {
-        final String name = constantPool.getUtf8(in.readUnsignedShort());
-        final int attributeLength = in.readInt();
-        final byte[] value = new byte[attributeLength];
-        for (int b = 0; b < attributeLength; b++) {
-            value[b] = in.readByte();
-        }
-
+    static AttributeInfo fromData(ByteBuffer in, ConstantPool constantPool) throws IOException {
+        final String name = constantPool.getUtf8(in.getShort() & 0xFFFF);
+        final int attributeLength = in.getInt();
+        final ByteBuffer value = in.slice();
+        // casts to Buffer keep the bytecode compatible with java 8
+        ((Buffer) value).limit(attributeLength);
+        ((Buffer) in).position(in.position() + attributeLength);
         return new AttributeInfo(name, value);
     }
 
@@ -55,13 +55,18 @@ final class AttributeInfo {
     }
 
     String sourceFile(ConstantPool constantPool) throws IOException {
-        final int b0 = value[0] < 0 ? value[0] + 256 : value[0];
-        final int b1 = value[1] < 0 ? value[1] + 256 : value[1];
-        final int pe = b0 * 256 + b1;
-        return constantPool.getUtf8(pe);
+        return constantPool.getUtf8(u2(0));
+    }
+
+    int length() {
+        return value.limit();
+    }
+
+    byte u1(int index) {
+        return value.get(index);
     }
 
     int u2(int index) {
-        return (value[index] << 8 & 0xFF00) | (value[index + 1] & 0xFF);
+        return value.getShort(index) & 0xFFFF;
     }
 }
@@ -15,12 +15,15 @@
  */
 package guru.nidi.codeassert.model;
 
-import guru.nidi.codeassert.util.CountingInputStream;
-
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
 /**
  * The <code>ClassFileParser</code> class is responsible for
  * parsing a Java class file to create a <code>JavaClass</code>
@@ -31,20 +34,74 @@ import java.util.List;
  */
 class ClassFileParser {
     private static final int JAVA_MAGIC = 0xCAFEBABE;
+    // mapping small files is slower than reading them and mappings are only released by the garbage collector
+    private static final int MIN_MAPPED_SIZE = 64 * 1024;
 
     private ConstantPool constantPool;
-    private DataInputStream in;
+    private ByteBuffer in;
 
     CodeClass parse(File file, Model model) throws IOException {
-        try (InputStream in = new FileInputStream(file)) {
-            return parse(in, model);
-        }
+        return addTo(model, read(file, model));
     }
 
     CodeClass parse(InputStream is, Model model) throws IOException {
-        final CountingInputStream counter = new CountingInputStream(is);
-        in = new DataInputStream(counter);
+        return addTo(model, read(is, model));
+    }
+
+    private static CodeClass addTo(Model model, ParsedClass parsed) {
+        return parsed == null ? null : parsed.addTo(model);
+    }
+
+    ParsedClass read(File file, Model model) throws IOException {
+        return read(load(file), model);
+    }
+
+    /**
+     * @param file a class file
+     * @return the content of the file, memory mapped if it is big.
+     * @throws IOException if the file cannot be read
+     */
+    static ByteBuffer load(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            final long size = channel.size();
+            if (size >= MIN_MAPPED_SIZE) {
+                return channel.map(READ_ONLY, 0, size);
+            }
+            final ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                //read until full
+            }
+            ((Buffer) buf).flip();
+            return buf;
+        }
+    }
 
+    ParsedClass read(InputStream is, Model model) throws IOException {
+        return read(ByteBuffer.wrap(readFully(is, 0)), model);
+    }
+
+    /**
+     * Parse a class file without changing the model, so this can be called concurrently.
+     *
+     * @param buf   the class file, starting at the current position
+     * @param model the model, only used to check for ignored classes
+     * @return the parsed class or null if the class is ignored
+     * @throws IOException if the class file cannot be read
+     */
+    ParsedClass read(ByteBuffer buf, Model model) throws IOException {
+        try {
+            in = buf;
+            return doRead(model);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Invalid class file", e);
+        } finally {
+            in = null;
+            constantPool = null;
+        }
+    }
+
+    private ParsedClass doRead(Model model) throws IOException {
+        final int start = in.position();
         parseMagic();
         parseMinorVersion();
         parseMajorVersion();
@@ -63,7 +120,7 @@ class ClassFileParser {
         final List<MemberInfo> methods = parseMembers();
         final List<AttributeInfo> attributes = parseAttributes();
 
-        return new CodeClassBuilder(className, model, constantPool)
+        return new CodeClassBuilder(className, constantPool)
                 .addClassConstantReferences()
                 .addFlags(flags)
                 .addSuperClass(superClassName)
@@ -71,13 +128,42 @@ class ClassFileParser {
                 .addFieldRefs(fields)
                 .addMethodRefs(methods)
                 .addAttributeRefs(attributes)
-                .addPackageInfo(model, className)
-                .addCodeSizes(counter.getCount(), methods)
-                .clazz;
+                .addCodeSizes(in.position() - start, methods)
+                .parsed;
+    }
+
+    /**
+     * Read a stream with a single bulk read if its size is known.
+     *
+     * @param is       the stream to read
+     * @param sizeHint the expected size or a value &lt;= 0 if unknown
+     * @return the content of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    static byte[] readFully(InputStream is, long sizeHint) throws IOException {
+        if (sizeHint > 0 && sizeHint < Integer.MAX_VALUE) {
+            final byte[] bytes = new byte[(int) sizeHint];
+            int pos = 0;
+            int read;
+            while (pos < bytes.length && (read = is.read(bytes, pos, bytes.length - pos)) > 0) {
+                pos += read;
+            }
+            if (pos == bytes.length && is.read() < 0) {
+                return bytes;
+            }
+            throw new IOException("Unexpected size of stream, expected " + sizeHint + " bytes");
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buf = new byte[8192];
+        int read;
+        while ((read = is.read(buf)) > 0) {
+            out.write(buf, 0, read);
+        }
+        return out.toByteArray();
     }
 
     private int parseMagic() throws IOException {
-        final int magic = in.readInt();
+        final int magic = in.getInt();
         if (magic != JAVA_MAGIC) {
             throw new IOException("Invalid class file");
         }
@@ -85,39 +171,39 @@ class ClassFileParser {
     }
 
     private int parseMinorVersion() throws IOException {
-        return in.readUnsignedShort();
+        return u2();
     }
 
     private int parseMajorVersion() throws IOException {
-        return in.readUnsignedShort();
+        return u2();
     }
 
     private int parseAccessFlags() throws IOException {
-        return in.readUnsignedShort();
+        return u2();
     }
 
     private String parseClassName() throws IOException {
-        final int entryIndex = in.readUnsignedShort();
+        final int entryIndex = u2();
         return constantPool.getClassConstantName(entryIndex);
     }
 
     private String parseSuperClassName() throws IOException {
-        final int entryIndex = in.readUnsignedShort();
+        final int entryIndex = u2();
         return constantPool.getClassConstantName(entryIndex);
     }
 
     private List<String> parseInterfaces() throws IOException {
-        final int count = in.readUnsignedShort();
+        final int count = u2();
         final List<String> names = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
-            final int entryIndex = in.readUnsignedShort();
+            final int entryIndex = u2();
             names.add(constantPool.getClassConstantName(entryIndex));
         }
         return names;
     }
 
     private List<MemberInfo> parseMembers() throws IOException {
-        final int count = in.readUnsignedShort();
+        final int count = u2();
         final List<MemberInfo> infos = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             infos.add(MemberInfo.fromData(in, constantPool));
@@ -126,7 +212,7 @@ class ClassFileParser {
     }
 
     private List<AttributeInfo> parseAttributes() throws IOException {
-        final int count = in.readUnsignedShort();
+        final int count = u2();
         final List<AttributeInfo> attributes = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             attributes.add(AttributeInfo.fromData(in, constantPool));
@@ -134,4 +220,7 @@ class ClassFileParser {
         return attributes;
     }
 
+    private int u2() {
+        return in.getShort() & 0xFFFF;
+    }
 }
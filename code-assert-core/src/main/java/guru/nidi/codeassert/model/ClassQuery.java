@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A query for classes of a model, see {@link ModelQuery#classes()}.
+ * The first condition is answered by an index, all further conditions filter its result,
+ * so the most selective condition should come first.
+ * The query is immutable, every condition returns a new query.
+ */
+public final class ClassQuery {
+    private final ModelQuery query;
+    private final Function<ModelQuery, Stream<CodeClass>> source;
+    private final Predicate<CodeClass> filter;
+
+    ClassQuery(ModelQuery query) {
+        this(query, null, null);
+    }
+
+    private ClassQuery(ModelQuery query, Function<ModelQuery, Stream<CodeClass>> source,
+                       Predicate<CodeClass> filter) {
+        this.query = query;
+        this.source = source;
+        this.filter = filter;
+    }
+
+    /**
+     * @param annotation the name of the annotation type
+     * @return the classes annotated with the annotation.
+     */
+    public ClassQuery annotatedWith(String annotation) {
+        return with(q -> q.annotatedWith(annotation), c -> isAnnotatedWith(c.getAnnotations(), annotation));
+    }
+
+    /**
+     * @param annotation the name of the annotation type
+     * @return the classes with a field or method annotated with the annotation.
+     */
+    public ClassQuery withMembersAnnotatedWith(String annotation) {
+        return with(q -> q.withMembersAnnotatedWith(annotation), c -> c.getMembers().stream()
+                .anyMatch(m -> isAnnotatedWith(m.getAnnotations(), annotation)));
+    }
+
+    /**
+     * @param type the name of a class or interface
+     * @return the classes directly extending or implementing the type.
+     */
+    public ClassQuery subtypesOf(String type) {
+        return with(q -> q.subtypesOf(type), c -> type.equals(c.getSuperClass()) || c.getInterfaces().contains(type));
+    }
+
+    /**
+     * @param type the name of a class or interface
+     * @return the classes directly or indirectly extending or implementing the type.
+     */
+    public ClassQuery allSubtypesOf(String type) {
+        return with(q -> q.allSubtypesOf(type), c -> query.isSubtype(c, type));
+    }
+
+    /**
+     * @param pack the name of a package
+     * @return the classes in the package and all its sub packages.
+     */
+    public ClassQuery inPackageTree(String pack) {
+        return with(q -> q.inPackageTree(pack), c -> ModelQuery.isInPackageTree(c, pack));
+    }
+
+    /**
+     * @param path the path of a source file relative to the source root, like "org/example/Foo.java"
+     * @return the classes compiled from the source file.
+     */
+    public ClassQuery inSourceFile(String path) {
+        return with(q -> q.inSourceFile(path), c -> path.equals(ModelQuery.sourcePath(c)));
+    }
+
+    /**
+     * @param predicate any condition, it is always checked on each class
+     * @return the classes matching the predicate.
+     */
+    public ClassQuery matching(Predicate<CodeClass> predicate) {
+        return new ClassQuery(query, source, filter == null ? predicate : filter.and(predicate));
+    }
+
+    /**
+     * @return a stream of the found classes.
+     */
+    public Stream<CodeClass> stream() {
+        final Stream<CodeClass> found = source == null ? query.all() : source.apply(query);
+        return filter == null ? found : found.filter(filter);
+    }
+
+    private ClassQuery with(Function<ModelQuery, Stream<CodeClass>> indexed, Predicate<CodeClass> predicate) {
+        return source == null ? new ClassQuery(query, indexed, filter) : matching(predicate);
+    }
+
+    private static boolean isAnnotatedWith(Set<CodeClass> annotations, String annotation) {
+        for (final CodeClass ann : annotations) {
+            if (ann.getName().equals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
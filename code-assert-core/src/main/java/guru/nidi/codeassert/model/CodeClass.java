@@ -16,10 +16,12 @@
 package guru.nidi.codeassert.model;
 
 import guru.nidi.codeassert.config.LocationMatcher;
-import guru.nidi.codeassert.util.CountSet;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
 
+import java.io.File;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 
 import static java.util.Collections.emptyList;
 
@@ -33,13 +35,19 @@ import static java.util.Collections.emptyList;
 public class CodeClass extends UsingElement<CodeClass> {
     private final String name;
     private final CodePackage pack;
-    private final CountSet<CodePackage> usedPackages;
-    private final CountSet<CodeClass> usedClasses;
+    private final UsageCounts<CodePackage> usedPackages;
+    private final UsageCounts<CodeClass> usedClasses;
+    private final UsageCounts<CodeClass> usedBy;
     private final Set<CodeClass> annotations;
     final List<MemberInfo> fields = new ArrayList<>();
     final List<MemberInfo> methods = new ArrayList<>();
+    final List<String> interfaces = new ArrayList<>();
     String superClass;
     String sourceFile;
+    /**
+     * The file the class was read from, null if it was not read.
+     */
+    File file;
     int codeSize;
     int totalSize;
     int flags;
@@ -48,6 +56,7 @@ public class CodeClass extends UsingElement<CodeClass> {
     int commentLines;
     int emptyLines;
     int totalLines;
+    private int references;
 
     public CodeClass(String fullName) {
         this(fullName, new CodePackage(fullName.substring(0, fullName.lastIndexOf('.'))));
@@ -56,8 +65,9 @@ public class CodeClass extends UsingElement<CodeClass> {
     CodeClass(String name, CodePackage pack) {
         this.name = name;
         this.pack = pack;
-        usedPackages = new CountSet<>();
-        usedClasses = new CountSet<>();
+        usedPackages = new UsageCounts<>();
+        usedClasses = new UsageCounts<>();
+        usedBy = new UsageCounts<>();
         annotations = new HashSet<>();
         sourceFile = "Unknown";
     }
@@ -89,6 +99,13 @@ public class CodeClass extends UsingElement<CodeClass> {
         return superClass;
     }
 
+    /**
+     * @return the names of the interfaces this class directly implements or, if it is an interface, extends.
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
     public String getSourceFile() {
         return sourceFile;
     }
@@ -152,16 +169,34 @@ public class CodeClass extends UsingElement<CodeClass> {
         return usedPackages.asSet();
     }
 
+    /**
+     * @return the packages used by this class and how often they are used.
+     */
     public Map<CodePackage, Integer> usedPackageCounts() {
-        return usedPackages.asMap();
+        return new LinkedHashMap<>(usedPackages.asMap());
     }
 
     public Collection<CodeClass> usedClasses() {
         return usedClasses.asSet();
     }
 
+    /**
+     * @return the classes used by this class and how often they are used.
+     */
     public Map<CodeClass, Integer> usedClassCounts() {
-        return usedClasses.asMap();
+        return new LinkedHashMap<>(usedClasses.asMap());
+    }
+
+    @Override
+    public Collection<CodeClass> usedBy() {
+        return usedBy.asSet();
+    }
+
+    /**
+     * @return the classes using this class and how often they use it.
+     */
+    public Map<CodeClass, Integer> usedByCounts() {
+        return new LinkedHashMap<>(usedBy.asMap());
     }
 
     public boolean uses(CodePackage pack) {
@@ -183,30 +218,116 @@ public class CodeClass extends UsingElement<CodeClass> {
         return emptyList();
     }
 
+    @Override
+    public int usageCount(CodeClass other) {
+        return usedClasses.count(other);
+    }
+
+    int usageCount(CodePackage pack) {
+        return usedPackages.count(pack);
+    }
+
     @Override
     public boolean isMatchedBy(LocationMatcher matcher) {
         return matcher.matchesClass(name);
     }
 
+    @Override
+    public <V> List<V> matchedBy(LocationMatcherIndex<V> index) {
+        return index.matchingClass(name);
+    }
+
     void addImport(String type, Model model) {
         if (!name.equals(type)) {
             final CodeClass clazz = model.getOrCreateClass(type);
             if (clazz != null) {
                 final String packName = model.packageOf(type);
                 final CodePackage p = model.getOrCreatePackage(packName);
-                usedPackages.add(p);
-                pack.addEfferent(p);
+                if (usedPackages.add(p) == 1) {
+                    p.addAfferent(pack, this);
+                }
+                pack.addEfferent(p, 1);
                 usedClasses.add(clazz);
+                clazz.usedBy.add(this);
+                clazz.references++;
+            }
+        }
+    }
+
+    void addAnnotations(List<String> types, Model model, Collection<CodeClass> annotations) {
+        for (final String type : types) {
+            final CodeClass clazz = model.getOrCreateClass(type);
+            if (clazz != null) {
+                addAnnotation(clazz, annotations);
             }
         }
     }
 
-    void addAnnotation(String type, Model model, Collection<CodeClass> annotations) {
-        final CodeClass clazz = model.getOrCreateClass(type);
-        if (clazz != null) {
-            addImport(type, model);
-            annotations.add(clazz);
+    void addAnnotation(CodeClass clazz, Collection<CodeClass> annotations) {
+        if (annotations.add(clazz)) {
+            clazz.references++;
+        }
+    }
+
+    void addUsage(CodeClass clazz, int count) {
+        usedClasses.add(clazz, count);
+        clazz.usedBy.add(this, count);
+        clazz.references += count;
+    }
+
+    void forEachUsedPackage(ObjIntConsumer<CodePackage> action) {
+        usedPackages.forEach(action);
+    }
+
+    void addUsage(CodePackage used, int count) {
+        if (usedPackages.add(used, count) == count) {
+            used.addAfferent(pack, this);
+        }
+    }
+
+    boolean isReferenced() {
+        return references > 0;
+    }
+
+    /**
+     * Remove everything that was read from the class file, the class stays in the model as a placeholder.
+     *
+     * @return the classes that were used by this class.
+     */
+    Set<CodeClass> retract() {
+        final Set<CodeClass> used = new HashSet<>(usedClasses());
+        usedClasses.forEach((clazz, count) -> {
+            clazz.references -= count;
+            clazz.usedBy.remove(this);
+        });
+        usedPackages.forEach((p, count) -> p.removeAfferent(pack, this));
+        usedClasses.clear();
+        usedPackages.clear();
+        if (name.endsWith(".package-info")) {
+            pack.removeAnnotations(annotations);
+        }
+        release(annotations, used);
+        for (final MemberInfo member : getMembers()) {
+            release(member.annotationClasses, used);
+        }
+        fields.clear();
+        methods.clear();
+        interfaces.clear();
+        superClass = null;
+        sourceFile = "Unknown";
+        file = null;
+        flags = 0;
+        codeSize = 0;
+        totalSize = 0;
+        return used;
+    }
+
+    private static void release(Collection<CodeClass> classes, Set<CodeClass> used) {
+        for (final CodeClass clazz : classes) {
+            clazz.references--;
         }
+        used.addAll(classes);
+        classes.clear();
     }
 
     public boolean equals(Object other) {
@@ -24,49 +24,47 @@ class CodeClassBuilder {
     private static final char CLASS_DESCRIPTOR = 'L';
     private static final char TYPE_END = ';';
 
-    final CodeClass clazz;
-    private final Model model;
+    final ParsedClass parsed;
+    private final CodeClass clazz;
     private final ConstantPool constantPool;
 
-    private CodeClassBuilder(CodeClass clazz, Model model, ConstantPool constantPool) {
+    private CodeClassBuilder(ParsedClass parsed, CodeClass clazz, ConstantPool constantPool) {
+        this.parsed = parsed;
         this.clazz = clazz;
-        this.model = model;
         this.constantPool = constantPool;
     }
 
-    CodeClassBuilder(String className, Model model, ConstantPool constantPool) {
-        this(model.getOrCreateClass(className), model, constantPool);
+    CodeClassBuilder(String className, ConstantPool constantPool) {
+        this(new ParsedClass(className), null, constantPool);
     }
 
     CodeClassBuilder(CodeClass clazz) {
-        this(clazz, null, null);
+        this(null, clazz, null);
     }
 
     CodeClassBuilder addSuperClass(String className) {
-        clazz.superClass = className;
+        parsed.superClass = className;
         addImport(className);
         return this;
     }
 
     CodeClassBuilder addInterfaces(List<String> interfaceNames) {
         for (final String interfaceName : interfaceNames) {
+            parsed.interfaces.add(interfaceName);
             addImport(interfaceName);
         }
         return this;
     }
 
     CodeClassBuilder addClassConstantReferences() throws IOException {
-        for (final Constant constant : constantPool) {
-            if (constant.tag == Constant.CLASS) {
-                final String name = constantPool.getUtf8(constant.nameIndex);
-                addImport(name);
-            }
+        for (final String name : constantPool.getClassConstantNames()) {
+            addImport(name);
         }
         return this;
     }
 
     CodeClassBuilder addFlags(int flags) {
-        clazz.flags = flags;
+        parsed.flags = flags;
         return this;
     }
 
@@ -74,7 +72,7 @@ class CodeClassBuilder {
         addMemberAnnotationRefs(methods);
         addMemberSignatureRefs(SignatureParser.Source.METHOD, methods);
         addMemberTypes(methods);
-        clazz.methods.addAll(methods);
+        parsed.methods.addAll(methods);
         return this;
     }
 
@@ -82,7 +80,7 @@ class CodeClassBuilder {
         addMemberAnnotationRefs(fields);
         addMemberSignatureRefs(SignatureParser.Source.FIELD, fields);
         addMemberTypes(fields);
-        clazz.fields.addAll(fields);
+        parsed.fields.addAll(fields);
         return this;
     }
 
@@ -95,23 +93,13 @@ class CodeClassBuilder {
         return this;
     }
 
-    CodeClassBuilder addPackageInfo(Model model, String className) {
-        if (className.endsWith(".package-info")) {
-            final CodePackage pack = model.getOrCreatePackage(model.packageOf(className));
-            for (final CodeClass ann : clazz.getAnnotations()) {
-                pack.addAnnotation(ann);
-            }
-        }
-        return this;
-    }
-
     CodeClassBuilder addCodeSizes(int totalSize, List<MemberInfo> methods) {
         int codeSize = 0;
         for (final MemberInfo method : methods) {
             codeSize += method.codeSize;
         }
-        clazz.codeSize = codeSize;
-        clazz.totalSize = totalSize;
+        parsed.codeSize = codeSize;
+        parsed.totalSize = totalSize;
         return this;
     }
 
@@ -129,6 +117,8 @@ class CodeClassBuilder {
         for (final MemberInfo member : members) {
             if (member.annotations != null) {
                 addAnnotationReferences(member.annotations, member);
+                // the attribute points into the class file, don't keep it
+                member.annotations = null;
             }
         }
     }
@@ -158,7 +148,7 @@ class CodeClassBuilder {
 
     private void addSourceAttribute(AttributeInfo attribute) throws IOException {
         if (attribute.isSource()) {
-            clazz.sourceFile = attribute.sourceFile(constantPool);
+            parsed.sourceFile = attribute.sourceFile(constantPool);
         }
     }
 
@@ -191,7 +181,8 @@ class CodeClassBuilder {
             final int elements = annotation.u2(i);
             i += 2;
             final String annType = getTypeName(descriptorToType(constantPool.getUtf8(typeIndex)));
-            clazz.addAnnotation(annType, model, member == null ? clazz.getAnnotations() : member.annotationClasses);
+            addImport(annType);
+            (member == null ? parsed.annotations : member.annotationTypes).add(annType);
             for (int e = 0; e < elements; e++) {
                 i = addAnnotationElementValueReferences(annotation, member, i + 2);
             }
@@ -201,7 +192,7 @@ class CodeClassBuilder {
 
     private int addAnnotationElementValueReferences(AttributeInfo annotation, MemberInfo member, int i)
             throws IOException {
-        final byte tag = annotation.value[i];
+        final byte tag = annotation.u1(i);
         switch (tag) {
             case 'B':
             case 'C':
@@ -243,7 +234,7 @@ class CodeClassBuilder {
     private void addImport(String type) {
         final String name = getTypeName(type);
         if (name != null) {
-            clazz.addImport(name, model);
+            parsed.imports.add(name);
         }
     }
 
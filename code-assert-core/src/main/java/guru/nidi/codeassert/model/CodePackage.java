@@ -16,9 +16,13 @@
 package guru.nidi.codeassert.model;
 
 import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
 
 import java.util.*;
 
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+
 /**
  * The <code>JavaPackage</code> class represents a Java package.
  *
@@ -29,13 +33,18 @@ import java.util.*;
 public class CodePackage extends UsingElement<CodePackage> {
     private final String name;
     private final Set<CodeClass> classes;
-    private final List<CodePackage> uses;
+    private final UsageCounts<CodePackage> uses;
+    /**
+     * The packages using this package, with the classes that do so.
+     */
+    private final Map<CodePackage, Set<CodeClass>> usedBy;
     private final Set<CodeClass> annotations;
 
     public CodePackage(String name) {
         this.name = name;
         classes = new HashSet<>();
-        uses = new ArrayList<>();
+        uses = new UsageCounts<>();
+        usedBy = new LinkedHashMap<>();
         annotations = new HashSet<>();
     }
 
@@ -52,6 +61,14 @@ public class CodePackage extends UsingElement<CodePackage> {
         annotations.add(clazz);
     }
 
+    void removeClass(CodeClass clazz) {
+        classes.remove(clazz);
+    }
+
+    void removeAnnotations(Collection<CodeClass> classes) {
+        annotations.removeAll(classes);
+    }
+
     public Collection<CodeClass> getClasses() {
         return classes;
     }
@@ -60,23 +77,67 @@ public class CodePackage extends UsingElement<CodePackage> {
         return annotations;
     }
 
-    void addEfferent(CodePackage jPackage) {
-        if (!jPackage.getName().equals(getName()) && !uses.contains(jPackage)) {
-            uses.add(jPackage);
+    void addEfferent(CodePackage jPackage, int count) {
+        if (!jPackage.getName().equals(getName())) {
+            uses.add(jPackage, count);
+        }
+    }
+
+    void updateEfferents() {
+        uses.clear();
+        for (final CodeClass clazz : classes) {
+            clazz.forEachUsedPackage(this::addEfferent);
+        }
+    }
+
+    void addAfferent(CodePackage from, CodeClass via) {
+        if (!from.getName().equals(getName())) {
+            usedBy.computeIfAbsent(from, k -> new HashSet<>()).add(via);
+        }
+    }
+
+    void removeAfferent(CodePackage from, CodeClass via) {
+        final Set<CodeClass> vias = usedBy.get(from);
+        if (vias != null && vias.remove(via) && vias.isEmpty()) {
+            usedBy.remove(from);
         }
     }
 
     @Override
     public Set<String> usedVia(UsingElement<CodePackage> to) {
         final Set<String> res = new HashSet<>();
-        for (final CodeClass jc : getClasses()) {
-            if (jc.uses(to.self())) {
-                res.add(jc.getName());
-            }
+        for (final CodeClass jc : vias(to.self())) {
+            res.add(jc.getName());
         }
         return res;
     }
 
+    /**
+     * @param to another package
+     * @return the classes of this package that use the other package.
+     */
+    private Collection<CodeClass> vias(CodePackage to) {
+        if (to.getName().equals(getName())) {
+            final List<CodeClass> res = new ArrayList<>();
+            for (final CodeClass jc : getClasses()) {
+                if (jc.uses(this)) {
+                    res.add(jc);
+                }
+            }
+            return res;
+        }
+        return to.usedBy.getOrDefault(this, emptySet());
+    }
+
+    /**
+     * @param other another package
+     * @return how often the classes of this package use the other package.
+     */
+    @Override
+    public int usageCount(CodePackage other) {
+        return uses.count(other);
+    }
+
     @Override
     public String getPackageName() {
         return name;
@@ -87,6 +148,11 @@ public class CodePackage extends UsingElement<CodePackage> {
         return matcher.matchesPackage(name);
     }
 
+    @Override
+    public <V> List<V> matchedBy(LocationMatcherIndex<V> index) {
+        return index.matchingPackage(name);
+    }
+
     @Override
     public CodePackage self() {
         return this;
@@ -94,7 +160,19 @@ public class CodePackage extends UsingElement<CodePackage> {
 
     @Override
     public Collection<CodePackage> uses() {
-        return uses;
+        return uses.asSet();
+    }
+
+    /**
+     * @return the packages used by this package, with the summed usage counts of its classes.
+     */
+    public Map<CodePackage, Integer> usedPackageCounts() {
+        return new LinkedHashMap<>(uses.asMap());
+    }
+
+    @Override
+    public Collection<CodePackage> usedBy() {
+        return unmodifiableSet(usedBy.keySet());
     }
 
     public boolean equals(Object other) {
@@ -15,9 +15,9 @@
  */
 package guru.nidi.codeassert.model;
 
-import java.io.DataInputStream;
-import java.io.IOException;
-
+/**
+ * The tags of the constant pool entries, see JVM Spec 4.4.
+ */
 final class Constant {
     static final int
             UTF8 = 1,
@@ -39,64 +39,6 @@ final class Constant {
             MODULE = 19,
             PACKGE = 20;
 
-    final byte tag;
-    final int nameIndex;
-    final int typeIndex;
-    final Object value;
-
-    static Constant fromData(DataInputStream in) throws IOException {
-        final byte tag = in.readByte();
-        switch (tag) {
-            case CLASS:
-            case STRING:
-            case METHOD_TYPE:
-            case MODULE:
-            case PACKGE:
-                return new Constant(tag, in.readUnsignedShort());
-            case FIELD:
-            case METHOD:
-            case INTERFACE_METHOD:
-            case NAME_AND_TYPE:
-            case DYNAMIC:
-            case INVOKE_DYNAMIC:
-                return new Constant(tag, in.readUnsignedShort(), in.readUnsignedShort());
-            case INTEGER:
-                return new Constant(tag, in.readInt());
-            case FLOAT:
-                return new Constant(tag, in.readFloat());
-            case LONG:
-                return new Constant(tag, in.readLong());
-            case DOUBLE:
-                return new Constant(tag, in.readDouble());
-            case UTF8:
-                return new Constant(tag, in.readUTF());
-            case METHOD_HANDLE:
-                return new Constant(tag, in.readByte(), in.readUnsignedShort());
-            default:
-                throw new IOException("Unknown constant: " + tag);
-        }
-    }
-
-    private Constant(byte tag, int nameIndex) {
-        this(tag, nameIndex, -1, null);
-    }
-
-    private Constant(byte tag, Object value) {
-        this(tag, -1, -1, value);
-    }
-
-    private Constant(byte tag, int nameIndex, int typeIndex) {
-        this(tag, nameIndex, typeIndex, null);
-    }
-
-    private Constant(byte tag, int nameIndex, int typeIndex, Object value) {
-        this.tag = tag;
-        this.nameIndex = nameIndex;
-        this.typeIndex = typeIndex;
-        this.value = value;
-    }
-
-    boolean isBig() {
-        return tag == DOUBLE || tag == LONG;
+    private Constant() {
     }
 }
@@ -15,47 +15,109 @@
  */
 package guru.nidi.codeassert.model;
 
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.io.UTFDataFormatException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
-final class ConstantPool implements Iterable<Constant> {
-    private final Constant[] pool;
+import static guru.nidi.codeassert.model.Constant.*;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
-    private ConstantPool(Constant[] pool) {
-        this.pool = pool;
+/**
+ * The constant pool of a class file.
+ * Only the offsets of the entries are recorded when reading it,
+ * UTF8 entries are decoded when they are accessed, other values are never decoded.
+ */
+final class ConstantPool {
+    private final ByteBuffer buf;
+    private final int[] offsets;
+    private final byte[] tags;
+    private final String[] utf8s;
+
+    private ConstantPool(ByteBuffer buf, int[] offsets, byte[] tags) {
+        this.buf = buf;
+        this.offsets = offsets;
+        this.tags = tags;
+        utf8s = new String[tags.length];
     }
 
-    public static ConstantPool fromData(DataInputStream in) throws IOException {
-        final int size = in.readUnsignedShort();
-        final Constant[] pool = new Constant[size];
+    public static ConstantPool fromData(ByteBuffer in) throws IOException {
+        final int size = in.getShort() & 0xFFFF;
+        final int[] offsets = new int[size];
+        final byte[] tags = new byte[size];
+        int pos = in.position();
         for (int i = 1; i < size; i++) {
-            final Constant constant = Constant.fromData(in);
-            pool[i] = constant;
+            final byte tag = in.get(pos);
+            offsets[i] = pos + 1;
+            tags[i] = tag;
+            pos += 1 + entrySize(tag, in, pos + 1);
 
             // 8-byte constants use two constant pool entries
-            if (constant.isBig()) {
+            if (tag == LONG || tag == DOUBLE) {
                 i++;
             }
         }
-        return new ConstantPool(pool);
+        ((Buffer) in).position(pos);
+        return new ConstantPool(in, offsets, tags);
     }
 
-    public Constant getEntry(int entryIndex) throws IOException {
-        if (entryIndex < 0 || entryIndex >= pool.length) {
-            throw new IOException("Illegal constant pool index : " + entryIndex);
+    private static int entrySize(byte tag, ByteBuffer in, int pos) throws IOException {
+        switch (tag) {
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+            case MODULE:
+            case PACKGE:
+                return 2;
+            case METHOD_HANDLE:
+                return 3;
+            case FIELD:
+            case METHOD:
+            case INTERFACE_METHOD:
+            case NAME_AND_TYPE:
+            case DYNAMIC:
+            case INVOKE_DYNAMIC:
+            case INTEGER:
+            case FLOAT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            case UTF8:
+                return 2 + (in.getShort(pos) & 0xFFFF);
+            default:
+                throw new IOException("Unknown constant: " + tag);
         }
+    }
 
-        return pool[entryIndex];
+    private byte getTag(int entryIndex) throws IOException {
+        if (entryIndex < 0 || entryIndex >= tags.length) {
+            throw new IOException("Illegal constant pool index : " + entryIndex);
+        }
+        return tags[entryIndex];
     }
 
     public String getClassConstantName(int entryIndex) throws IOException {
-        final Constant entry = getEntry(entryIndex);
-        if (entry == null) {
+        if (getTag(entryIndex) == 0) {
             return "";
         }
-        return slashesToDots(getUtf8(entry.nameIndex));
+        return slashesToDots(getUtf8(u2(offsets[entryIndex])));
+    }
+
+    /**
+     * @return the unconverted names of all class constants.
+     * @throws IOException if the constant pool is corrupt
+     */
+    public List<String> getClassConstantNames() throws IOException {
+        final List<String> names = new ArrayList<>();
+        for (int i = 1; i < tags.length; i++) {
+            if (tags[i] == CLASS) {
+                names.add(getUtf8(u2(offsets[i])));
+            }
+        }
+        return names;
     }
 
     private String slashesToDots(String s) {
@@ -63,37 +125,60 @@ final class ConstantPool implements Iterable<Constant> {
     }
 
     public String getUtf8(int entryIndex) throws IOException {
-        final Constant entry = getEntry(entryIndex);
-        if (entry.tag == Constant.UTF8) {
-            return (String) entry.value;
+        if (getTag(entryIndex) != UTF8) {
+            throw new IOException("Constant pool entry is not a UTF8 type: " + entryIndex);
         }
-        throw new IOException("Constant pool entry is not a UTF8 type: " + entryIndex);
+        String s = utf8s[entryIndex];
+        if (s == null) {
+            s = decodeUtf8(offsets[entryIndex]);
+            utf8s[entryIndex] = s;
+        }
+        return s;
     }
 
-    public Iterator<Constant> iterator() {
-        return new Iterator<Constant>() {
-            int pos = 1;
+    private int u2(int pos) {
+        return buf.getShort(pos) & 0xFFFF;
+    }
 
-            @Override
-            public boolean hasNext() {
-                return pos < pool.length;
+    private String decodeUtf8(int pos) throws UTFDataFormatException {
+        final int len = u2(pos);
+        final int start = pos + 2;
+        final byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            final byte b = buf.get(start + i);
+            if (b < 0) {
+                return decodeModifiedUtf8(start, start + len);
             }
+            bytes[i] = b;
+        }
+        return new String(bytes, ISO_8859_1);
+    }
 
-            @Override
-            public Constant next() {
-                if (!hasNext()) {
-                    throw new NoSuchElementException();
-                }
-                final Constant constant = pool[pos];
-                pos += constant.isBig() ? 2 : 1;
-                return constant;
+    // JVM Spec 4.4.7, the same as DataInput.readUTF
+    private String decodeModifiedUtf8(int start, int end) throws UTFDataFormatException {
+        final char[] chars = new char[end - start];
+        int count = 0;
+        int pos = start;
+        while (pos < end) {
+            final int c = buf.get(pos++) & 0xFF;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0 && pos < end) {
+                chars[count++] = (char) (((c & 0x1F) << 6) | continuation(pos++));
+            } else if ((c & 0xF0) == 0xE0 && pos + 1 < end) {
+                chars[count++] = (char) (((c & 0x0F) << 12) | (continuation(pos++) << 6) | continuation(pos++));
+            } else {
+                throw new UTFDataFormatException("Malformed input around byte " + pos);
             }
+        }
+        return new String(chars, 0, count);
+    }
 
-            @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
-            }
-        };
+    private int continuation(int pos) throws UTFDataFormatException {
+        final int c = buf.get(pos);
+        if ((c & 0xC0) != 0x80) {
+            throw new UTFDataFormatException("Malformed input around byte " + pos);
+        }
+        return c & 0x3F;
     }
 }
-
@@ -39,8 +39,9 @@ public class InternalTypeInPublicApiMatcher extends TypeSafeMatcher<Model> {
         for (final MemberInfo member : clazz.getMembers()) {
             if (Modifier.isPublic(member.getAccessFlags())) {
                 for (final String refClassName : member.referencedClasses) {
-                    final CodeClass refClass = model.getOrCreateClass(refClassName);
-                    if (refClass.isParsed() && !Modifier.isPublic(refClass.flags)) {
+                    //only look the class up, matching must not change the model
+                    final CodeClass refClass = model.classes.get(refClassName);
+                    if (refClass != null && refClass.isParsed() && !Modifier.isPublic(refClass.flags)) {
                         final Map<String, List<String>> classFindings = findings.computeIfAbsent(clazz.getName(),
                                 s -> new HashMap<>());
                         final List<String> memberFindings = classFindings.computeIfAbsent(member.getName(),
@@ -15,22 +15,22 @@
  */
 package guru.nidi.codeassert.model;
 
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 public final class MemberInfo {
     private final int accessFlags;
     private final String name;
     final String descriptor;
-    final AttributeInfo annotations;
+    AttributeInfo annotations;
     final String signature;
     final int codeSize;
     final Set<String> referencedClasses = new HashSet<>();
+    final List<String> annotationTypes = new ArrayList<>();
     final Set<CodeClass> annotationClasses = new HashSet<>();
 
-    private MemberInfo(int accessFlags, String name, String descriptor,
+    MemberInfo(int accessFlags, String name, String descriptor,
                        AttributeInfo annotations, String signature, int codeSize) {
         this.accessFlags = accessFlags;
         this.name = name;
@@ -40,11 +40,11 @@ public final class MemberInfo {
         this.codeSize = codeSize;
     }
 
-    static MemberInfo fromData(DataInputStream in, ConstantPool constantPool) throws IOException {
-        final int access = in.readUnsignedShort();
-        final String name = constantPool.getUtf8(in.readUnsignedShort());
-        final String descriptor = constantPool.getUtf8(in.readUnsignedShort());
-        final int attributesCount = in.readUnsignedShort();
+    static MemberInfo fromData(ByteBuffer in, ConstantPool constantPool) throws IOException {
+        final int access = u2(in);
+        final String name = constantPool.getUtf8(u2(in));
+        final String descriptor = constantPool.getUtf8(u2(in));
+        final int attributesCount = u2(in);
         AttributeInfo annotations = null;
         String signature = null;
         int codeSize = 0;
@@ -57,12 +57,16 @@ public final class MemberInfo {
                 signature = constantPool.getUtf8(attribute.u2(0));
             }
             if (attribute.isCode()) {
-                codeSize = attribute.value.length;
+                codeSize = attribute.length();
             }
         }
         return new MemberInfo(access, name, descriptor, annotations, signature, codeSize);
     }
 
+    private static int u2(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+
     public int getAccessFlags() {
         return accessFlags;
     }
@@ -71,6 +75,10 @@ public final class MemberInfo {
         return name;
     }
 
+    public Set<CodeClass> getAnnotations() {
+        return annotationClasses;
+    }
+
     public int getCodeSize() {
         return codeSize;
     }
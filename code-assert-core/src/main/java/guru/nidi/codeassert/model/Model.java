@@ -16,23 +16,39 @@
 package guru.nidi.codeassert.model;
 
 import guru.nidi.codeassert.AnalyzerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.jar.JarInputStream;
-import java.util.zip.ZipEntry;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 
 public class Model {
+    private static final Logger LOG = LoggerFactory.getLogger(Model.class);
     public static final String UNNAMED_PACKAGE = "<Unnamed Package>";
 
     final Map<String, CodePackage> packages = new HashMap<>();
     final Map<String, CodeClass> classes = new HashMap<>();
-    private final Set<String> ownPackages = new HashSet<>();
-    private final List<String> ignorePackages;
-    private final List<String> mergePackages;
+    final Set<String> ownPackages = new HashSet<>();
+    /**
+     * The classes read from each file, only built when the model is updated.
+     */
+    private Map<File, List<String>> fileClasses;
+    final List<String> ignorePackages;
+    final List<String> mergePackages;
+    private final PrefixIndex ignoreIndex;
+    private final PrefixIndex mergeIndex;
+    private int nextPackageId;
+    private int nextClassId;
+    private ModelQuery query;
+    /**
+     * Counts the changes of the packages and classes, so cached results can tell if they are still valid.
+     */
+    int modifications;
 
     Model() {
         this(emptyList(), emptyList());
@@ -41,6 +57,8 @@ public class Model {
     Model(List<String> ignorePackages, List<String> mergePackages) {
         this.ignorePackages = ignorePackages;
         this.mergePackages = mergePackages;
+        ignoreIndex = new PrefixIndex(ignorePackages);
+        mergeIndex = new PrefixIndex(mergePackages);
     }
 
     public static ModelBuilder from(File... files) {
@@ -52,45 +70,150 @@ public class Model {
     }
 
     public Model read(List<File> files) {
+        return read(files, 1, null);
+    }
+
+    Model read(List<File> files, int parallelism, File cacheDir) {
         try {
-            final ClassFileParser classParser = new ClassFileParser();
-            for (final File file : files) {
-                try (InputStream in = new FileInputStream(file)) {
-                    add(classParser, file.getName(), in);
-                }
-            }
+            final ModelCache cache = ModelCache.load(cacheDir, ignorePackages);
+            new ModelReader(this, parallelism, cache).read(files);
+            saveCache(cache);
             return this;
         } catch (IOException e) {
             throw new AnalyzerException("Problem creating a Model", e);
         }
     }
 
-    private void add(ClassFileParser parser, String name, InputStream in) throws IOException {
-        if (name.endsWith(".jar") || name.endsWith(".zip") || name.endsWith(".war") || name.endsWith(".ear")) {
-            final JarInputStream jar = new JarInputStream(in);
-            ZipEntry entry;
-            while ((entry = jar.getNextEntry()) != null) {
-                try {
-                    if (!entry.isDirectory()) {
-                        add(parser, entry.getName(), jar);
-                    }
-                } finally {
-                    jar.closeEntry();
+    private static void saveCache(ModelCache cache) {
+        try {
+            cache.save();
+        } catch (IOException e) {
+            //the cache only speeds up the next read, the model is complete without it
+            LOG.warn("Could not write the model cache. Ignoring it", e);
+        }
+    }
+
+    void add(File file, ParsedClass parsed) {
+        if (parsed != null) {
+            //a class that was only referenced so far gets its members, annotations and supertypes now
+            modifications++;
+            final CodeClass clazz = parsed.addTo(this);
+            ownPackages.add(clazz.getPackageName());
+            clazz.file = file;
+            if (fileClasses != null) {
+                fileClasses.computeIfAbsent(file.getAbsoluteFile(), f -> new ArrayList<>()).add(parsed.name);
+            }
+        }
+    }
+
+    /**
+     * Update the model after some of the files it was read from have changed.
+     * Only the given files are parsed again, the rest of the model is kept as it is.
+     *
+     * @param changed the files that have been changed or added
+     * @param deleted the files that have been deleted
+     * @return this
+     */
+    public Model update(Collection<File> changed, Collection<File> deleted) {
+        modifications++;
+        final Set<CodeClass> affected = new HashSet<>();
+        retract(changed, affected);
+        retract(deleted, affected);
+        read(new ArrayList<>(changed));
+        final Set<CodePackage> affectedPackages = new HashSet<>();
+        for (final CodeClass clazz : affected) {
+            affectedPackages.add(clazz.getPackage());
+            if (!clazz.isParsed() && !clazz.isReferenced()) {
+                classes.remove(clazz.getName());
+                clazz.getPackage().removeClass(clazz);
+            }
+        }
+        for (final CodePackage pack : affectedPackages) {
+            ownPackages.remove(pack.getName());
+            if (pack.getClasses().isEmpty()) {
+                packages.remove(pack.getName());
+            } else {
+                pack.updateEfferents();
+                if (pack.getClasses().stream().anyMatch(CodeClass::isParsed)) {
+                    ownPackages.add(pack.getName());
                 }
             }
-        } else if (name.endsWith(".class")) {
-            final CodeClass clazz = parser.parse(in, this);
-            if (clazz != null) {
-                ownPackages.add(clazz.getPackageName());
+        }
+        return this;
+    }
+
+    private Map<File, List<String>> fileClasses() {
+        if (fileClasses == null) {
+            final Map<File, File> absoluteFiles = new HashMap<>();
+            fileClasses = new HashMap<>();
+            for (final CodeClass clazz : classes.values()) {
+                if (clazz.file != null) {
+                    final File file = absoluteFiles.computeIfAbsent(clazz.file, File::getAbsoluteFile);
+                    fileClasses.computeIfAbsent(file, f -> new ArrayList<>()).add(clazz.getName());
+                }
             }
         }
+        return fileClasses;
+    }
+
+    private void retract(Collection<File> files, Set<CodeClass> affected) {
+        final Map<File, List<String>> classesByFile = fileClasses();
+        for (final File file : files) {
+            final List<String> names = classesByFile.remove(file.getAbsoluteFile());
+            if (names != null) {
+                for (final String name : names) {
+                    final CodeClass clazz = classes.get(name);
+                    if (clazz != null) {
+                        affected.add(clazz);
+                        affected.addAll(clazz.retract());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the model into a file, it can be read again with {@link #readSnapshot(Path)}.
+     *
+     * @param file the file to write
+     */
+    public void writeSnapshot(Path file) {
+        try {
+            ModelSnapshot.write(this, file);
+        } catch (IOException e) {
+            throw new AnalyzerException("Problem writing snapshot", e);
+        }
+    }
+
+    /**
+     * Read a model that was written with {@link #writeSnapshot(Path)}.
+     *
+     * @param file the file to read
+     * @return the model
+     */
+    public static Model readSnapshot(Path file) {
+        try {
+            return ModelSnapshot.read(file);
+        } catch (IOException e) {
+            throw new AnalyzerException("Problem reading snapshot", e);
+        }
+    }
+
+    static boolean isArchive(String name) {
+        return name.endsWith(".jar") || name.endsWith(".zip") || name.endsWith(".war") || name.endsWith(".ear");
+    }
+
+    static boolean isClass(String name) {
+        return name.endsWith(".class");
     }
 
     CodePackage getOrCreatePackage(String name) {
         CodePackage pack = packages.get(name);
         if (pack == null) {
             pack = new CodePackage(name);
+            pack.id = nextPackageId++;
             packages.put(name, pack);
+            modifications++;
         }
         return pack;
     }
@@ -99,24 +222,62 @@ public class Model {
         if (isIgnoreClass(name)) {
             return null;
         }
-        CodeClass clazz = classes.get(name);
-        if (clazz == null) {
-            final CodePackage pack = getOrCreatePackage(packageOf(name));
-            clazz = new CodeClass(name, pack);
-            classes.put(name, clazz);
-            pack.addClass(clazz);
-        }
+        final CodeClass clazz = classes.get(name);
+        return clazz == null ? createClass(name, getOrCreatePackage(packageOf(name))) : clazz;
+    }
+
+    CodeClass createClass(String name, CodePackage pack) {
+        final CodeClass clazz = new CodeClass(name, pack);
+        clazz.id = nextClassId++;
+        classes.put(name, clazz);
+        modifications++;
+        pack.addClass(clazz);
         return clazz;
     }
 
     String packageOf(String type) {
         final int pos = type.lastIndexOf('.');
         final String pack = pos < 0 ? UNNAMED_PACKAGE : type.substring(0, pos);
-        return mergePackages.stream().filter(pack::startsWith).findFirst().orElse(pack);
+        final String merged = mergeIndex.first(pack);
+        return merged == null ? pack : merged;
     }
 
     boolean isIgnoreClass(String name) {
-        return ignorePackages.stream().anyMatch(name::startsWith);
+        return ignoreIndex.matches(name);
+    }
+
+    /**
+     * @param name the name of a class file entry in an archive
+     * @return if the entry can be skipped because its path denotes an ignored class.
+     */
+    boolean isIgnoreEntry(String name) {
+        return isIgnoreClass(entryClassName(name));
+    }
+
+    /**
+     * @param pack the name of a package, as given by the directory of a class file
+     * @return if all classes of the package are ignored, so the directory can be skipped.
+     */
+    boolean isIgnorePackage(String pack) {
+        return ignoreIndex.matches(pack + ".");
+    }
+
+    /**
+     * @param name the name of a class file entry in an archive
+     * @return the name of the class, without the directories multi-release jars, wars and spring boot jars put
+     * the class files in.
+     */
+    static String entryClassName(String name) {
+        String path = name;
+        if (path.startsWith("META-INF/versions/")) {
+            final int pos = path.indexOf('/', "META-INF/versions/".length());
+            path = pos < 0 ? path : path.substring(pos + 1);
+        } else if (path.startsWith("BOOT-INF/classes/")) {
+            path = path.substring("BOOT-INF/classes/".length());
+        } else if (path.startsWith("WEB-INF/classes/")) {
+            path = path.substring("WEB-INF/classes/".length());
+        }
+        return path.substring(0, path.length() - ".class".length()).replace('/', '.');
     }
 
     public boolean isOwnPackage(CodePackage pack) {
@@ -131,4 +292,15 @@ public class Model {
         return classes.values();
     }
 
+    /**
+     * @return indexes to query the classes of this model.
+     * The same object is returned as long as the model does not change.
+     */
+    public synchronized ModelQuery query() {
+        if (query == null || query.modifications != modifications) {
+            query = new ModelQuery(this);
+        }
+        return query;
+    }
+
 }
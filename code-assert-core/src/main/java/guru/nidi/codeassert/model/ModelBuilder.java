@@ -25,6 +25,8 @@ public class ModelBuilder {
     private final List<File> files = new ArrayList<>();
     private final List<String> ignorePackages = new ArrayList<>();
     private final List<String> mergePackages = new ArrayList<>();
+    private int parallelism = 1;
+    private File cacheDir;
 
     ModelBuilder() {
     }
@@ -56,7 +58,34 @@ public class ModelBuilder {
         return this;
     }
 
+    /**
+     * Parse the class files using multiple threads.
+     * The resulting model is the same as when reading with a single thread.
+     *
+     * @param parallelism the number of threads to use, 1 reads everything in the calling thread.
+     * @return this
+     */
+    public ModelBuilder parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Cache the parsed classes in the given directory.
+     * When reading again, only the files that have changed since are parsed.
+     *
+     * @param cacheDir the directory to store the cache in, it is created if needed.
+     * @return this
+     */
+    public ModelBuilder cacheDir(File cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
     public Model read() {
-        return new Model(ignorePackages, mergePackages).read(files);
+        return new Model(ignorePackages, mergePackages).read(files, parallelism, cacheDir);
     }
 }
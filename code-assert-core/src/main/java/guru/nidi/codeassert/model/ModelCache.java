@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A cache of the parsed classes of the input files, stored in a single file in a cache directory.
+ * An input file is identified by its path, an entry is valid if the size and the modification time
+ * or the content hash of the file are unchanged.
+ * The content hash is only calculated from data that is read anyway:
+ * the bytes of a class file or the CRCs of the entries in an archive's central directory.
+ * When checking an entry, it is only calculated if the modification time has changed.
+ * An unreadable cache is ignored and written anew.
+ */
+class ModelCache {
+    private static final String CACHE_FILE = "model.cache";
+    private static final int MAGIC = 0x43414d43;
+    private static final int VERSION = 3;
+
+    private final File dir;
+    private final List<String> ignorePackages;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private boolean changed;
+
+    private ModelCache(File dir, List<String> ignorePackages) {
+        this.dir = dir;
+        this.ignorePackages = ignorePackages;
+    }
+
+    static ModelCache load(File dir, List<String> ignorePackages) {
+        final ModelCache cache = new ModelCache(dir, ignorePackages);
+        if (dir != null) {
+            final File file = new File(dir, CACHE_FILE);
+            if (file.exists()) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    cache.read(in);
+                } catch (IOException e) {
+                    cache.entries.clear();
+                    cache.changed = true;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @param file the input file
+     * @return the cached classes of the file or null if the file is not cached or has changed.
+     * @throws IOException if the file could not be read
+     */
+    List<ParsedClass> get(File file) throws IOException {
+        if (dir == null) {
+            return null;
+        }
+        final Entry entry = entries.get(file.getAbsolutePath());
+        if (entry == null || entry.size != file.length()) {
+            return null;
+        }
+        final long lastModified = file.lastModified();
+        if (entry.lastModified != lastModified) {
+            if (entry.hash != hash(file)) {
+                return null;
+            }
+            entry.lastModified = lastModified;
+            changed = true;
+        }
+        return entry.classes;
+    }
+
+    /**
+     * Start a new entry for the given file, the parsed classes of the file must be added afterwards.
+     *
+     * @param file the input file
+     * @return the new entry, its hash must be set when the file is read, null if there is no cache.
+     */
+    Entry begin(File file) {
+        if (dir == null) {
+            return null;
+        }
+        final Entry entry = new Entry(file.length(), file.lastModified(), 0);
+        entries.put(file.getAbsolutePath(), entry);
+        changed = true;
+        return entry;
+    }
+
+    ParsedClass add(File file, ParsedClass parsed) {
+        if (dir != null && parsed != null) {
+            entries.get(file.getAbsolutePath()).classes.add(parsed);
+        }
+        return parsed;
+    }
+
+    void save() throws IOException {
+        if (dir == null || !changed) {
+            return;
+        }
+        entries.keySet().removeIf(path -> !new File(path).exists());
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create cache directory " + dir);
+        }
+        final File temp = File.createTempFile(CACHE_FILE, ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                write(out);
+            }
+            Files.move(temp.toPath(), new File(dir, CACHE_FILE).toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        changed = false;
+    }
+
+    private static long hash(File file) throws IOException {
+        if (Model.isArchive(file.getName())) {
+            try (ZipFile zip = new ZipFile(file)) {
+                return hash(zip);
+            }
+        }
+        return hash(ClassFileParser.load(file));
+    }
+
+    /**
+     * @param buf the content of a class file, its position is not changed
+     * @return the content hash of the class file.
+     */
+    static long hash(ByteBuffer buf) {
+        final CRC32 crc = new CRC32();
+        crc.update(buf.duplicate());
+        return crc.getValue();
+    }
+
+    /**
+     * @param zip an archive
+     * @return a hash of the names, sizes and CRCs of all entries, as found in the central directory.
+     */
+    static long hash(ZipFile zip) {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer buf = ByteBuffer.allocate(16);
+        final Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            crc.update(entry.getName().getBytes(UTF_8));
+            ((Buffer) buf).clear();
+            buf.putLong(entry.getCrc()).putLong(entry.getSize());
+            crc.update(buf.array());
+        }
+        return crc.getValue();
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown cache format");
+        }
+        final Reader reader = new Reader(in);
+        if (!ignorePackages.equals(reader.strings())) {
+            throw new IOException("Cache created with different ignored packages");
+        }
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final String path = in.readUTF();
+            final Entry entry = new Entry(in.readLong(), in.readLong(), in.readLong());
+            final int classes = in.readInt();
+            for (int j = 0; j < classes; j++) {
+                entry.classes.add(reader.parsedClass());
+            }
+            entries.put(path, entry);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        final Writer writer = new Writer(out);
+        writer.strings(ignorePackages);
+        out.writeInt(entries.size());
+        for (final Map.Entry<String, Entry> e : entries.entrySet()) {
+            final Entry entry = e.getValue();
+            out.writeUTF(e.getKey());
+            out.writeLong(entry.size);
+            out.writeLong(entry.lastModified);
+            out.writeLong(entry.hash);
+            out.writeInt(entry.classes.size());
+            for (final ParsedClass parsed : entry.classes) {
+                writer.parsedClass(parsed);
+            }
+        }
+    }
+
+    static class Entry {
+        final long size;
+        long lastModified;
+        /**
+         * Set by the reader once it has read the file, maybe on another thread before the task is joined.
+         */
+        long hash;
+        final List<ParsedClass> classes = new ArrayList<>();
+
+        Entry(long size, long lastModified, long hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Strings are written only at their first occurrence, later they are referenced by their index.
+     */
+    private static class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void parsedClass(ParsedClass parsed) throws IOException {
+            string(parsed.name);
+            string(parsed.superClass);
+            strings(parsed.interfaces);
+            string(parsed.sourceFile);
+            out.writeInt(parsed.flags);
+            out.writeInt(parsed.codeSize);
+            out.writeInt(parsed.totalSize);
+            strings(parsed.imports);
+            strings(parsed.annotations);
+            members(parsed.fields);
+            members(parsed.methods);
+        }
+
+        private void members(List<MemberInfo> members) throws IOException {
+            out.writeInt(members.size());
+            for (final MemberInfo member : members) {
+                out.writeInt(member.getAccessFlags());
+                string(member.getName());
+                string(member.descriptor);
+                string(member.signature);
+                out.writeInt(member.codeSize);
+                strings(member.referencedClasses);
+                strings(member.annotationTypes);
+            }
+        }
+
+        void strings(Collection<String> ss) throws IOException {
+            out.writeInt(ss.size());
+            for (final String s : ss) {
+                string(s);
+            }
+        }
+
+        private void string(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            final Integer id = ids.get(s);
+            if (id != null) {
+                out.writeInt(id);
+            } else {
+                out.writeInt(ids.size());
+                out.writeUTF(s);
+                ids.put(s, ids.size());
+            }
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        ParsedClass parsedClass() throws IOException {
+            final ParsedClass parsed = new ParsedClass(string());
+            parsed.superClass = string();
+            parsed.interfaces.addAll(strings());
+            parsed.sourceFile = string();
+            parsed.flags = in.readInt();
+            parsed.codeSize = in.readInt();
+            parsed.totalSize = in.readInt();
+            parsed.imports.addAll(strings());
+            parsed.annotations.addAll(strings());
+            members(parsed.fields);
+            members(parsed.methods);
+            return parsed;
+        }
+
+        private void members(List<MemberInfo> members) throws IOException {
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final MemberInfo member = new MemberInfo(
+                        in.readInt(), string(), string(), null, string(), in.readInt());
+                member.referencedClasses.addAll(strings());
+                member.annotationTypes.addAll(strings());
+                members.add(member);
+            }
+        }
+
+        List<String> strings() throws IOException {
+            final int count = in.readInt();
+            final List<String> ss = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ss.add(string());
+            }
+            return ss;
+        }
+
+        private String string() throws IOException {
+            final int id = in.readInt();
+            if (id < 0) {
+                return null;
+            }
+            if (id < strings.size()) {
+                return strings.get(id);
+            }
+            if (id > strings.size()) {
+                throw new IOException("Invalid string reference " + id);
+            }
+            final String s = in.readUTF();
+            strings.add(s);
+            return s;
+        }
+    }
+}
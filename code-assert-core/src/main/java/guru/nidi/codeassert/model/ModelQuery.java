@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Read-only indexes over the classes of a model, so a query costs about the size of its answer,
+ * not the size of the model.
+ * Every index is built when it is first used.
+ * A ModelQuery is only valid as long as its model does not change,
+ * after an update a new one has to be obtained with {@link Model#query()}.
+ */
+public final class ModelQuery {
+    final int modifications;
+    private final Model model;
+    private Map<String, List<CodeClass>> annotated;
+    private Map<String, List<CodeClass>> withAnnotatedMembers;
+    private Map<String, List<MemberInfo>> annotatedMembers;
+    private Map<String, List<CodeClass>> subtypes;
+    private Map<String, List<CodeClass>> sourceFiles;
+    private CodeClass[] sorted;
+    private TypeHierarchy hierarchy;
+
+    ModelQuery(Model model) {
+        this.model = model;
+        this.modifications = model.modifications;
+    }
+
+    /**
+     * @return a query for all classes of the model, to be narrowed down.
+     */
+    public ClassQuery classes() {
+        return new ClassQuery(this);
+    }
+
+    /**
+     * @return the type hierarchy of the model.
+     */
+    public synchronized TypeHierarchy hierarchy() {
+        checkValid();
+        if (hierarchy == null) {
+            hierarchy = new TypeHierarchy(model.classes);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * @param annotation the name of the annotation type
+     * @return all fields and methods annotated with the annotation.
+     */
+    public Stream<MemberInfo> membersAnnotatedWith(String annotation) {
+        return annotationIndex().annotatedMembers.getOrDefault(annotation, emptyList()).stream();
+    }
+
+    Stream<CodeClass> all() {
+        checkValid();
+        return model.classes.values().stream();
+    }
+
+    Stream<CodeClass> annotatedWith(String annotation) {
+        return annotationIndex().annotated.getOrDefault(annotation, emptyList()).stream();
+    }
+
+    Stream<CodeClass> withMembersAnnotatedWith(String annotation) {
+        return annotationIndex().withAnnotatedMembers.getOrDefault(annotation, emptyList()).stream();
+    }
+
+    Stream<CodeClass> subtypesOf(String type) {
+        return subtypes().getOrDefault(type, emptyList()).stream();
+    }
+
+    Stream<CodeClass> allSubtypesOf(String type) {
+        return hierarchy().subtypesOf(type).stream();
+    }
+
+    Stream<CodeClass> inPackageTree(String pack) {
+        final CodeClass[] classes = sorted();
+        final int from = firstNotBefore(classes, pack + ".");
+        final int to = firstNotBefore(classes, pack + "/");
+        return IntStream.range(from, to).mapToObj(i -> classes[i]);
+    }
+
+    Stream<CodeClass> inSourceFile(String path) {
+        return sourceFiles().getOrDefault(path, emptyList()).stream();
+    }
+
+    /**
+     * @return if the class extends or implements the type, directly or indirectly.
+     */
+    boolean isSubtype(CodeClass clazz, String type) {
+        return !clazz.getName().equals(type) && hierarchy().isSubtypeOf(clazz.getName(), type);
+    }
+
+    static boolean isInPackageTree(CodeClass clazz, String pack) {
+        final String name = clazz.getName();
+        return name.length() > pack.length() && name.charAt(pack.length()) == '.' && name.startsWith(pack);
+    }
+
+    /**
+     * @return the path of the class's source file relative to the source root, null if it is not known.
+     */
+    static String sourcePath(CodeClass clazz) {
+        if (!clazz.isParsed()) {
+            return null;
+        }
+        final String name = clazz.getName();
+        final int pos = name.lastIndexOf('.');
+        return pos < 0 ? clazz.getSourceFile() : name.substring(0, pos + 1).replace('.', '/') + clazz.getSourceFile();
+    }
+
+    private synchronized ModelQuery annotationIndex() {
+        checkValid();
+        if (annotated == null) {
+            final Map<String, List<CodeClass>> classes = new HashMap<>();
+            final Map<String, List<CodeClass>> withMembers = new HashMap<>();
+            final Map<String, List<MemberInfo>> members = new HashMap<>();
+            for (final CodeClass clazz : model.classes.values()) {
+                for (final CodeClass ann : clazz.getAnnotations()) {
+                    classes.computeIfAbsent(ann.getName(), a -> new ArrayList<>()).add(clazz);
+                }
+                final Set<String> memberAnns = new HashSet<>();
+                for (final MemberInfo member : clazz.getMembers()) {
+                    for (final CodeClass ann : member.getAnnotations()) {
+                        members.computeIfAbsent(ann.getName(), a -> new ArrayList<>()).add(member);
+                        if (memberAnns.add(ann.getName())) {
+                            withMembers.computeIfAbsent(ann.getName(), a -> new ArrayList<>()).add(clazz);
+                        }
+                    }
+                }
+            }
+            withAnnotatedMembers = withMembers;
+            annotatedMembers = members;
+            annotated = classes;
+        }
+        return this;
+    }
+
+    private synchronized Map<String, List<CodeClass>> subtypes() {
+        checkValid();
+        if (subtypes == null) {
+            final Map<String, List<CodeClass>> subs = new HashMap<>();
+            for (final CodeClass clazz : model.classes.values()) {
+                if (clazz.getSuperClass() != null) {
+                    subs.computeIfAbsent(clazz.getSuperClass(), s -> new ArrayList<>()).add(clazz);
+                }
+                for (final String inter : new LinkedHashSet<>(clazz.getInterfaces())) {
+                    subs.computeIfAbsent(inter, s -> new ArrayList<>()).add(clazz);
+                }
+            }
+            subtypes = subs;
+        }
+        return subtypes;
+    }
+
+    private synchronized Map<String, List<CodeClass>> sourceFiles() {
+        checkValid();
+        if (sourceFiles == null) {
+            final Map<String, List<CodeClass>> files = new HashMap<>();
+            for (final CodeClass clazz : model.classes.values()) {
+                final String path = sourcePath(clazz);
+                if (path != null) {
+                    files.computeIfAbsent(path, p -> new ArrayList<>()).add(clazz);
+                }
+            }
+            sourceFiles = files;
+        }
+        return sourceFiles;
+    }
+
+    private synchronized CodeClass[] sorted() {
+        checkValid();
+        if (sorted == null) {
+            final CodeClass[] classes = model.classes.values().toArray(new CodeClass[0]);
+            Arrays.sort(classes, Comparator.comparing(CodeClass::getName));
+            sorted = classes;
+        }
+        return sorted;
+    }
+
+    private static int firstNotBefore(CodeClass[] classes, String name) {
+        int low = 0;
+        int high = classes.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (classes[mid].getName().compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void checkValid() {
+        if (model.modifications != modifications) {
+            throw new IllegalStateException("The model has changed since this query was created.");
+        }
+    }
+}
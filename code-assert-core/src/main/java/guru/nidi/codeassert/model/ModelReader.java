@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads class files and archives into a model.
+ * With a parallelism above one, the class files are inflated and parsed concurrently on a fork-join pool,
+ * but the parsed classes are added to the model in the order of the input,
+ * so the model is the same as when reading in a single thread.
+ * Archives are read using their central directory, archives nested inside them are read without extracting them.
+ * Directories are read as the root of a package tree, so ignored packages and classes are skipped by their path.
+ */
+class ModelReader {
+    private static final int PENDING_PER_THREAD = 64;
+
+    private final Model model;
+    private final ModelCache cache;
+    private final ForkJoinPool pool;
+    private final int maxPending;
+    private final Deque<Parsing> pending = new ArrayDeque<>();
+
+    ModelReader(Model model, int parallelism, ModelCache cache) {
+        this.model = model;
+        this.cache = cache;
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        maxPending = parallelism * PENDING_PER_THREAD;
+    }
+
+    void read(List<File> files) throws IOException {
+        try {
+            for (final File file : files) {
+                if (file.isDirectory()) {
+                    readDirectory(file, "");
+                } else {
+                    readFile(file);
+                }
+            }
+            addPending();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Read the class files of a directory containing the packages.
+     * Directories of ignored packages and class files of ignored classes are skipped without reading them.
+     */
+    private void readDirectory(File dir, String pack) throws IOException {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (final File file : files) {
+            final String name = file.getName();
+            if (file.isDirectory()) {
+                final String sub = pack.isEmpty() ? name : pack + "." + name;
+                if (!model.isIgnorePackage(sub)) {
+                    readDirectory(file, sub);
+                }
+            } else if (Model.isArchive(name) || (Model.isClass(name) && !model.isIgnoreClass(className(pack, name)))) {
+                readFile(file);
+            }
+        }
+    }
+
+    private static String className(String pack, String fileName) {
+        final String simple = fileName.substring(0, fileName.length() - ".class".length());
+        return pack.isEmpty() ? simple : pack + "." + simple;
+    }
+
+    private void readFile(File file) throws IOException {
+        final List<ParsedClass> cached = cache.get(file);
+        if (cached != null) {
+            addPending();
+            cached.forEach(parsed -> model.add(file, parsed));
+        } else {
+            final ModelCache.Entry entry = cache.begin(file);
+            if (Model.isArchive(file.getName())) {
+                readArchive(file, entry);
+            } else if (Model.isClass(file.getName())) {
+                submit(file, () -> {
+                    final ByteBuffer buf = ClassFileParser.load(file);
+                    if (entry != null) {
+                        entry.hash = ModelCache.hash(buf);
+                    }
+                    return new ClassFileParser().read(buf, model);
+                });
+            }
+        }
+    }
+
+    private void readArchive(File file, ModelCache.Entry cacheEntry) throws IOException {
+        try (ZipFile zip = new ZipFile(file)) {
+            if (cacheEntry != null) {
+                cacheEntry.hash = ModelCache.hash(zip);
+            }
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (!entry.isDirectory()) {
+                    if (Model.isArchive(name)) {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            readNestedArchive(file, new JarInputStream(new BufferedInputStream(in)));
+                        }
+                    } else if (isClassToRead(name)) {
+                        submit(file, () -> {
+                            try (InputStream in = zip.getInputStream(entry)) {
+                                return parse(ClassFileParser.readFully(in, entry.getSize()));
+                            }
+                        });
+                    }
+                }
+            }
+            // the zip file must stay open until all its entries are parsed
+            addPending();
+        }
+    }
+
+    private void readNestedArchive(File file, JarInputStream jar) throws IOException {
+        ZipEntry entry;
+        while ((entry = jar.getNextEntry()) != null) {
+            final String name = entry.getName();
+            if (!entry.isDirectory()) {
+                if (Model.isArchive(name)) {
+                    readNestedArchive(file, new JarInputStream(jar));
+                } else if (isClassToRead(name)) {
+                    final byte[] bytes = ClassFileParser.readFully(jar, entry.getSize());
+                    submit(file, () -> parse(bytes));
+                }
+            }
+            jar.closeEntry();
+        }
+    }
+
+    private boolean isClassToRead(String name) {
+        return Model.isClass(name) && !model.isIgnoreEntry(name);
+    }
+
+    private ParsedClass parse(byte[] bytes) throws IOException {
+        return new ClassFileParser().read(ByteBuffer.wrap(bytes), model);
+    }
+
+    private void submit(File file, ParseTask task) throws IOException {
+        if (pool == null) {
+            model.add(file, cache.add(file, task.parse()));
+            return;
+        }
+        if (pending.size() >= maxPending) {
+            addNext();
+        }
+        pending.add(new Parsing(file, pool.submit(() -> {
+            try {
+                return task.parse();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        })));
+    }
+
+    private void addPending() throws IOException {
+        while (!pending.isEmpty()) {
+            addNext();
+        }
+    }
+
+    private void addNext() throws IOException {
+        final Parsing parsing = pending.removeFirst();
+        try {
+            model.add(parsing.file, cache.add(parsing.file, parsing.task.join()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class Parsing {
+        final File file;
+        final ForkJoinTask<ParsedClass> task;
+
+        Parsing(File file, ForkJoinTask<ParsedClass> task) {
+            this.file = file;
+            this.task = task;
+        }
+    }
+
+    private interface ParseTask {
+        ParsedClass parse() throws IOException;
+    }
+}
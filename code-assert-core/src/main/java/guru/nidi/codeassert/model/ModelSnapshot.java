@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A binary snapshot of a model.
+ * Packages, classes and their usages reference strings, packages and classes by index.
+ * The table of all strings is at the end of the file, so the model can be written in one streaming pass.
+ * Reading builds the whole model in one pass, there is no need to parse any class file.
+ */
+final class ModelSnapshot {
+    private static final int MAGIC = 0x4341534e;
+    private static final int VERSION = 5;
+    private static final int HEADER_SIZE = 12;
+
+    private ModelSnapshot() {
+    }
+
+    static void write(Model model, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(0);
+            final Writer writer = new Writer(model, out);
+            writer.write();
+            final int stringTable = out.size();
+            out.writeInt(writer.strings.size());
+            for (final String s : writer.strings.keySet()) {
+                final byte[] bytes = s.getBytes(UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            final ByteBuffer offset = ByteBuffer.allocate(4).putInt(0, stringTable);
+            channel.write(offset, 8);
+        }
+    }
+
+    static Model read(Path file) throws IOException {
+        final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a model snapshot: " + file);
+            }
+            final int version = buf.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            return new Reader(buf, buf.getInt()).read();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Invalid snapshot " + file, e);
+        }
+    }
+
+    private static class Writer {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final DataOutputStream out;
+        private final Model model;
+        private final Map<CodePackage, Integer> packages = new HashMap<>();
+        private final Map<CodeClass, Integer> classes = new HashMap<>();
+
+        Writer(Model model, DataOutputStream out) {
+            this.model = model;
+            this.out = out;
+        }
+
+        void write() throws IOException {
+            strings(model.ignorePackages);
+            strings(model.mergePackages);
+            out.writeInt(model.packages.size());
+            for (final CodePackage pack : model.packages.values()) {
+                packages.put(pack, packages.size());
+                string(pack.getName());
+            }
+            out.writeInt(model.classes.size());
+            for (final CodeClass clazz : model.classes.values()) {
+                classes.put(clazz, classes.size());
+                string(clazz.getName());
+                out.writeInt(packages.get(clazz.getPackage()));
+            }
+            for (final CodeClass clazz : model.classes.values()) {
+                writeClass(clazz);
+            }
+            for (final CodePackage pack : model.packages.values()) {
+                out.writeBoolean(model.isOwnPackage(pack));
+                classes(pack.getAnnotations());
+                final Map<CodePackage, Integer> uses = pack.usedPackageCounts();
+                out.writeInt(uses.size());
+                for (final Map.Entry<CodePackage, Integer> used : uses.entrySet()) {
+                    out.writeInt(packages.get(used.getKey()));
+                    out.writeInt(used.getValue());
+                }
+            }
+        }
+
+        private void writeClass(CodeClass clazz) throws IOException {
+            string(clazz.superClass);
+            strings(clazz.interfaces);
+            string(clazz.sourceFile);
+            string(clazz.file == null ? null : clazz.file.getAbsolutePath());
+            out.writeInt(clazz.flags);
+            out.writeInt(clazz.codeSize);
+            out.writeInt(clazz.totalSize);
+            out.writeInt(clazz.sourceSize);
+            out.writeInt(clazz.codeLines);
+            out.writeInt(clazz.commentLines);
+            out.writeInt(clazz.emptyLines);
+            out.writeInt(clazz.totalLines);
+            classes(clazz.getAnnotations());
+            final Map<CodeClass, Integer> usedClasses = clazz.usedClassCounts();
+            out.writeInt(usedClasses.size());
+            for (final Map.Entry<CodeClass, Integer> used : usedClasses.entrySet()) {
+                out.writeInt(classes.get(used.getKey()));
+                out.writeInt(used.getValue());
+            }
+            final Map<CodePackage, Integer> usedPackages = clazz.usedPackageCounts();
+            out.writeInt(usedPackages.size());
+            for (final Map.Entry<CodePackage, Integer> used : usedPackages.entrySet()) {
+                out.writeInt(packages.get(used.getKey()));
+                out.writeInt(used.getValue());
+            }
+            members(clazz.fields);
+            members(clazz.methods);
+        }
+
+        private void members(List<MemberInfo> members) throws IOException {
+            out.writeInt(members.size());
+            for (final MemberInfo member : members) {
+                out.writeInt(member.getAccessFlags());
+                string(member.getName());
+                string(member.descriptor);
+                string(member.signature);
+                out.writeInt(member.codeSize);
+                strings(member.referencedClasses);
+                classes(member.annotationClasses);
+            }
+        }
+
+        private void classes(Collection<CodeClass> cs) throws IOException {
+            out.writeInt(cs.size());
+            for (final CodeClass c : cs) {
+                out.writeInt(classes.get(c));
+            }
+        }
+
+        private void strings(Collection<String> ss) throws IOException {
+            out.writeInt(ss.size());
+            for (final String s : ss) {
+                string(s);
+            }
+        }
+
+        private void string(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+            } else {
+                Integer id = strings.get(s);
+                if (id == null) {
+                    id = strings.size();
+                    strings.put(s, id);
+                }
+                out.writeInt(id);
+            }
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer buf;
+        private final String[] strings;
+        private final Map<String, File> files = new HashMap<>();
+        private CodePackage[] packages;
+        private CodeClass[] classes;
+
+        Reader(ByteBuffer buf, int stringTable) {
+            this.buf = buf;
+            ((Buffer) buf).position(stringTable);
+            strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                strings[i] = new String(bytes, UTF_8);
+            }
+            ((Buffer) buf).position(HEADER_SIZE);
+        }
+
+        Model read() throws IOException {
+            final Model model = new Model(strings(), strings());
+            packages = new CodePackage[buf.getInt()];
+            for (int i = 0; i < packages.length; i++) {
+                packages[i] = model.getOrCreatePackage(string());
+            }
+            classes = new CodeClass[buf.getInt()];
+            for (int i = 0; i < classes.length; i++) {
+                final String name = string();
+                classes[i] = model.createClass(name, packages[buf.getInt()]);
+            }
+            for (final CodeClass clazz : classes) {
+                readClass(clazz);
+            }
+            for (final CodePackage pack : packages) {
+                if (buf.get() != 0) {
+                    model.ownPackages.add(pack.getName());
+                }
+                for (final CodeClass ann : classes()) {
+                    pack.addAnnotation(ann);
+                }
+                final int uses = buf.getInt();
+                for (int i = 0; i < uses; i++) {
+                    pack.addEfferent(packages[buf.getInt()], buf.getInt());
+                }
+            }
+            return model;
+        }
+
+        private void readClass(CodeClass clazz) throws IOException {
+            clazz.superClass = string();
+            clazz.interfaces.addAll(strings());
+            clazz.sourceFile = string();
+            final String file = string();
+            clazz.file = file == null ? null : files.computeIfAbsent(file, File::new);
+            clazz.flags = buf.getInt();
+            clazz.codeSize = buf.getInt();
+            clazz.totalSize = buf.getInt();
+            clazz.sourceSize = buf.getInt();
+            clazz.codeLines = buf.getInt();
+            clazz.commentLines = buf.getInt();
+            clazz.emptyLines = buf.getInt();
+            clazz.totalLines = buf.getInt();
+            for (final CodeClass ann : classes()) {
+                clazz.addAnnotation(ann, clazz.getAnnotations());
+            }
+            final int usedClasses = buf.getInt();
+            for (int i = 0; i < usedClasses; i++) {
+                clazz.addUsage(classes[buf.getInt()], buf.getInt());
+            }
+            final int usedPackages = buf.getInt();
+            for (int i = 0; i < usedPackages; i++) {
+                clazz.addUsage(packages[buf.getInt()], buf.getInt());
+            }
+            members(clazz, clazz.fields);
+            members(clazz, clazz.methods);
+        }
+
+        private void members(CodeClass clazz, List<MemberInfo> members) throws IOException {
+            final int count = buf.getInt();
+            for (int i = 0; i < count; i++) {
+                final int flags = buf.getInt();
+                final String name = string();
+                final String descriptor = string();
+                final String signature = string();
+                final MemberInfo member = new MemberInfo(flags, name, descriptor, null, signature, buf.getInt());
+                member.referencedClasses.addAll(strings());
+                for (final CodeClass ann : classes()) {
+                    clazz.addAnnotation(ann, member.annotationClasses);
+                }
+                members.add(member);
+            }
+        }
+
+        private List<CodeClass> classes() {
+            final int count = buf.getInt();
+            final List<CodeClass> cs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                cs.add(classes[buf.getInt()]);
+            }
+            return cs;
+        }
+
+        private List<String> strings() throws IOException {
+            final int count = buf.getInt();
+            final List<String> ss = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ss.add(string());
+            }
+            return ss;
+        }
+
+        private String string() throws IOException {
+            final int id = buf.getInt();
+            if (id < 0) {
+                return null;
+            }
+            if (id >= strings.length) {
+                throw new IOException("Invalid string reference " + id);
+            }
+            return strings[id];
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything that is read from a class file, independent of any {@link Model}.
+ * Parsing a class file can therefore happen on any thread,
+ * the result is then added to the model with {@link #addTo(Model)}.
+ */
+final class ParsedClass {
+    final String name;
+    final List<String> imports = new ArrayList<>();
+    final List<String> annotations = new ArrayList<>();
+    final List<String> interfaces = new ArrayList<>();
+    final List<MemberInfo> fields = new ArrayList<>();
+    final List<MemberInfo> methods = new ArrayList<>();
+    String superClass;
+    String sourceFile;
+    int flags;
+    int codeSize;
+    int totalSize;
+
+    ParsedClass(String name) {
+        this.name = name;
+    }
+
+    CodeClass addTo(Model model) {
+        final CodeClass clazz = model.getOrCreateClass(name);
+        clazz.flags = flags;
+        clazz.superClass = superClass;
+        clazz.interfaces.clear();
+        clazz.interfaces.addAll(interfaces);
+        if (sourceFile != null) {
+            clazz.sourceFile = sourceFile;
+        }
+        clazz.codeSize = codeSize;
+        clazz.totalSize = totalSize;
+        for (final String imp : imports) {
+            clazz.addImport(imp, model);
+        }
+        clazz.addAnnotations(annotations, model, clazz.getAnnotations());
+        addMembers(model, clazz, fields, clazz.fields);
+        addMembers(model, clazz, methods, clazz.methods);
+        if (name.endsWith(".package-info")) {
+            final CodePackage pack = model.getOrCreatePackage(model.packageOf(name));
+            for (final CodeClass ann : clazz.getAnnotations()) {
+                pack.addAnnotation(ann);
+            }
+        }
+        return clazz;
+    }
+
+    private void addMembers(Model model, CodeClass clazz, List<MemberInfo> members, List<MemberInfo> target) {
+        for (final MemberInfo member : members) {
+            clazz.addAnnotations(member.annotationTypes, model, member.annotationClasses);
+        }
+        target.addAll(members);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A trie of string prefixes to find the prefixes of a string in one pass over it.
+ */
+final class PrefixIndex {
+    private final Node root = new Node();
+
+    PrefixIndex(List<String> prefixes) {
+        for (int i = prefixes.size() - 1; i >= 0; i--) {
+            Node node = root;
+            final String prefix = prefixes.get(i);
+            for (int j = 0; j < prefix.length(); j++) {
+                node = node.child(prefix.charAt(j), true);
+            }
+            node.prefix = prefix;
+            node.index = i;
+        }
+    }
+
+    /**
+     * @param s the string to check
+     * @return if the string starts with any of the prefixes.
+     */
+    boolean matches(String s) {
+        Node node = root;
+        for (int i = 0; node != null; i++) {
+            if (node.prefix != null) {
+                return true;
+            }
+            node = i < s.length() ? node.child(s.charAt(i), false) : null;
+        }
+        return false;
+    }
+
+    /**
+     * @param s the string to check
+     * @return the prefix of the string that comes first in the list of prefixes, null if there is none.
+     */
+    String first(String s) {
+        Node match = null;
+        Node node = root;
+        for (int i = 0; node != null; i++) {
+            if (node.prefix != null && (match == null || node.index < match.index)) {
+                match = node;
+            }
+            node = i < s.length() ? node.child(s.charAt(i), false) : null;
+        }
+        return match == null ? null : match.prefix;
+    }
+
+    private static final class Node {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        char[] chars = NO_CHARS;
+        Node[] children = NO_NODES;
+        String prefix;
+        int index;
+
+        Node child(char c, boolean create) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return children[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            final Node node = new Node();
+            chars = Arrays.copyOf(chars, chars.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            chars[chars.length - 1] = c;
+            children[children.length - 1] = node;
+            return node;
+        }
+    }
+}
@@ -26,6 +26,7 @@ public abstract class Scope<T extends UsingElement<T>> implements Iterable<T> {
     public static final Classes CLASSES = new Classes(null);
 
     protected final Model model;
+    private ScopeIndex<T> index;
 
     protected Scope(Model model) {
         this.model = model;
@@ -48,14 +49,21 @@ public abstract class Scope<T extends UsingElement<T>> implements Iterable<T> {
         }
     }
 
+    /**
+     * The result is cached as long as the model does not change.
+     *
+     * @param matcher the matcher
+     * @return the elements matched by the matcher, in the order of iteration.
+     */
     public List<T> matchingElements(LocationMatcher matcher) {
-        final List<T> res = new ArrayList<>();
-        for (final T elem : this) {
-            if (elem.isMatchedBy(matcher)) {
-                res.add(elem);
-            }
+        return index().matchingElements(matcher);
+    }
+
+    private synchronized ScopeIndex<T> index() {
+        if (index == null || index.modifications != model.modifications) {
+            index = new ScopeIndex<>(this, model.modifications);
         }
-        return res;
+        return index;
     }
 
     public static class Packages extends Scope<CodePackage> {
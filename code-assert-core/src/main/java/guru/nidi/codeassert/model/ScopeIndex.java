@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.LocationMatcher;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The elements of a scope sorted by name.
+ * All elements matching a pattern start with the pattern's package prefix,
+ * so only the range of elements with this prefix has to be checked.
+ * The results are cached per matcher.
+ *
+ * @param <T> the type of the elements
+ */
+final class ScopeIndex<T extends UsingElement<T>> {
+    final int modifications;
+    private final List<T> elems = new ArrayList<>();
+    private final String[] names;
+    private final int[] positions;
+    private final Map<LocationMatcher, List<T>> matches = new ConcurrentHashMap<>();
+
+    ScopeIndex(Iterable<T> scope, int modifications) {
+        this.modifications = modifications;
+        for (final T elem : scope) {
+            elems.add(elem);
+        }
+        final Integer[] sorted = new Integer[elems.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, Comparator.comparing(i -> elems.get(i).getName()));
+        names = new String[sorted.length];
+        positions = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            positions[i] = sorted[i];
+            names[i] = elems.get(sorted[i]).getName();
+        }
+    }
+
+    List<T> matchingElements(LocationMatcher matcher) {
+        return matches.computeIfAbsent(matcher, this::find);
+    }
+
+    private List<T> find(LocationMatcher matcher) {
+        final String prefix = matcher.packagePrefix();
+        int[] found = new int[8];
+        int count = 0;
+        for (int i = firstWithPrefix(prefix); i < names.length && names[i].startsWith(prefix); i++) {
+            final T elem = elems.get(positions[i]);
+            if (elem.isMatchedBy(matcher)) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = positions[i];
+            }
+        }
+        Arrays.sort(found, 0, count);
+        final List<T> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            res.add(elems.get(found[i]));
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    private int firstWithPrefix(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
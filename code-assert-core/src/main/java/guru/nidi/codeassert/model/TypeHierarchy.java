@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.*;
+
+/**
+ * The type hierarchy of the classes of a model, see {@link ModelQuery#hierarchy()}.
+ * The classes are numbered in pre-order of the superclass tree, so the subclasses of a class form an interval.
+ * Each class also has a bit set of all the interfaces it implements, directly or through its supertypes.
+ * Together, they answer {@link #isSubtypeOf(CodeClass, CodeClass)} in constant time.
+ * The implementors of an interface are found by going down the interfaces to the classes declaring them,
+ * whose subclasses are intervals again, so enumerating subtypes costs about the size of the result.
+ */
+public final class TypeHierarchy {
+    private final Map<String, CodeClass> classes;
+    private final CodeClass[] byId;
+    private final CodeClass[] order;
+    private final int[] pre;
+    private final int[] end;
+    private final int[] column;
+    private final long[][] interfaces;
+    private final Map<CodeClass, List<CodeClass>> implementors = new HashMap<>();
+
+    TypeHierarchy(Map<String, CodeClass> classes) {
+        this.classes = classes;
+        int size = 0;
+        for (final CodeClass clazz : classes.values()) {
+            size = Math.max(size, clazz.getId() + 1);
+        }
+        byId = new CodeClass[size];
+        for (final CodeClass clazz : classes.values()) {
+            byId[clazz.getId()] = clazz;
+        }
+        order = new CodeClass[classes.size()];
+        pre = new int[size];
+        end = new int[size];
+        column = new int[size];
+        interfaces = new long[size][];
+        final int[] superIds = new int[size];
+        final int[] firstChild = new int[size];
+        final int[] nextSibling = new int[size];
+        Arrays.fill(superIds, -1);
+        Arrays.fill(firstChild, -1);
+        for (final CodeClass clazz : classes.values()) {
+            final CodeClass sup = clazz.superClass == null ? null : classes.get(clazz.superClass);
+            if (sup != null && sup != clazz) {
+                final int id = clazz.getId();
+                superIds[id] = sup.getId();
+                nextSibling[id] = firstChild[sup.getId()];
+                firstChild[sup.getId()] = id;
+            }
+        }
+        numberClasses(superIds, firstChild, nextSibling);
+        collectInterfaces(superIds, firstChild, nextSibling);
+    }
+
+    /**
+     * @param sub the name of a class
+     * @param sup the name of a class or interface
+     * @return if sub is sup or extends or implements it, directly or indirectly.
+     */
+    public boolean isSubtypeOf(String sub, String sup) {
+        if (sub.equals(sup)) {
+            return true;
+        }
+        final CodeClass subClass = classes.get(sub);
+        final CodeClass supClass = classes.get(sup);
+        return subClass != null && supClass != null && isSubtypeOf(subClass, supClass);
+    }
+
+    /**
+     * @param sub a class
+     * @param sup a class or interface
+     * @return if sub is sup or extends or implements it, directly or indirectly.
+     */
+    public boolean isSubtypeOf(CodeClass sub, CodeClass sup) {
+        if (sub == sup) {
+            return true;
+        }
+        if (!contains(sub) || !contains(sup)) {
+            return false;
+        }
+        final int s = pre[sub.getId()];
+        final int t = sup.getId();
+        if (pre[t] < s && s < end[t]) {
+            return true;
+        }
+        final long[] row = interfaces[sub.getId()];
+        final int col = column[t];
+        return col >= 0 && row != null && (row[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * @param type the name of a class or interface
+     * @return all classes that extend or implement the type, directly or indirectly, in pre-order.
+     */
+    public List<CodeClass> subtypesOf(String type) {
+        final CodeClass clazz = classes.get(type);
+        return clazz == null ? Collections.emptyList() : subtypesOf(clazz);
+    }
+
+    /**
+     * @param type a class or interface
+     * @return all classes that extend or implement the type, directly or indirectly, in pre-order.
+     */
+    public List<CodeClass> subtypesOf(CodeClass type) {
+        if (!contains(type)) {
+            return Collections.emptyList();
+        }
+        final BitSet found = new BitSet();
+        final int t = type.getId();
+        found.set(pre[t] + 1, end[t]);
+        if (column[t] >= 0) {
+            final Set<CodeClass> seen = new HashSet<>();
+            final Deque<CodeClass> todo = new ArrayDeque<>();
+            todo.add(type);
+            seen.add(type);
+            while (!todo.isEmpty()) {
+                for (final CodeClass impl : implementors.getOrDefault(todo.poll(), Collections.emptyList())) {
+                    final int id = impl.getId();
+                    if (!found.get(pre[id])) {
+                        found.set(pre[id], end[id]);
+                    }
+                    if (column[id] >= 0 && seen.add(impl)) {
+                        todo.add(impl);
+                    }
+                }
+            }
+            found.clear(pre[t]);
+        }
+        final List<CodeClass> res = new ArrayList<>(found.cardinality());
+        for (int p = found.nextSetBit(0); p >= 0; p = found.nextSetBit(p + 1)) {
+            res.add(order[p]);
+        }
+        return res;
+    }
+
+    private boolean contains(CodeClass clazz) {
+        final int id = clazz.getId();
+        return id >= 0 && id < byId.length && byId[id] == clazz;
+    }
+
+    /**
+     * Number the classes in pre-order of the superclass tree, iteratively, so deep hierarchies are no problem.
+     * A class's subtree is then the interval from its own number to 'end'.
+     */
+    private void numberClasses(int[] superIds, int[] firstChild, int[] nextSibling) {
+        Arrays.fill(pre, -1);
+        final int[] parent = new int[byId.length];
+        final int[] stack = new int[byId.length];
+        int counter = 0;
+        //first the roots, then whatever is left in (invalid) superclass cycles
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < byId.length; root++) {
+                if (byId[root] == null || pre[root] >= 0 || (pass == 0 && superIds[root] >= 0)) {
+                    continue;
+                }
+                parent[root] = -1;
+                int sp = 0;
+                stack[sp++] = root;
+                while (sp > 0) {
+                    final int v = stack[--sp];
+                    pre[v] = counter;
+                    order[counter++] = byId[v];
+                    for (int c = firstChild[v]; c >= 0; c = nextSibling[c]) {
+                        if (pre[c] < 0) {
+                            parent[c] = v;
+                            stack[sp++] = c;
+                        }
+                    }
+                }
+            }
+        }
+        for (int p = counter - 1; p >= 0; p--) {
+            final int v = order[p].getId();
+            if (end[v] == 0) {
+                end[v] = p + 1;
+            }
+            if (parent[v] >= 0) {
+                end[parent[v]] = Math.max(end[parent[v]], end[v]);
+            }
+        }
+    }
+
+    /**
+     * The interface bit sets are built with the supertypes first.
+     * A class without interfaces of its own shares the bit set of its superclass.
+     */
+    private void collectInterfaces(int[] superIds, int[] firstChild, int[] nextSibling) {
+        Arrays.fill(column, -1);
+        final int[] pending = new int[byId.length];
+        int columns = 0;
+        for (final CodeClass clazz : byId) {
+            if (clazz != null) {
+                final int id = clazz.getId();
+                pending[id] = superIds[id] >= 0 ? 1 : 0;
+                for (final CodeClass inter : directInterfaces(clazz)) {
+                    if (column[inter.getId()] < 0) {
+                        column[inter.getId()] = columns++;
+                    }
+                    implementors.computeIfAbsent(inter, i -> new ArrayList<>()).add(clazz);
+                    pending[id]++;
+                }
+            }
+        }
+        final int words = (columns + 63) >>> 6;
+        final int[] queue = new int[byId.length];
+        int head = 0;
+        int tail = 0;
+        for (final CodeClass clazz : byId) {
+            if (clazz != null && pending[clazz.getId()] == 0) {
+                queue[tail++] = clazz.getId();
+            }
+        }
+        while (head < tail) {
+            final int v = queue[head++];
+            final CodeClass clazz = byId[v];
+            interfaces[v] = interfacesOf(clazz, superIds[v] < 0 ? null : interfaces[superIds[v]], words);
+            for (int c = firstChild[v]; c >= 0; c = nextSibling[c]) {
+                if (--pending[c] == 0) {
+                    queue[tail++] = c;
+                }
+            }
+            for (final CodeClass impl : implementors.getOrDefault(clazz, Collections.emptyList())) {
+                if (--pending[impl.getId()] == 0) {
+                    queue[tail++] = impl.getId();
+                }
+            }
+        }
+    }
+
+    private long[] interfacesOf(CodeClass clazz, long[] superInterfaces, int words) {
+        final List<CodeClass> direct = directInterfaces(clazz);
+        if (direct.isEmpty()) {
+            return superInterfaces;
+        }
+        final long[] row = superInterfaces == null ? new long[words] : superInterfaces.clone();
+        for (final CodeClass inter : direct) {
+            final int col = column[inter.getId()];
+            row[col >>> 6] |= 1L << col;
+            final long[] inherited = interfaces[inter.getId()];
+            if (inherited != null) {
+                for (int i = 0; i < words; i++) {
+                    row[i] |= inherited[i];
+                }
+            }
+        }
+        return row;
+    }
+
+    private List<CodeClass> directInterfaces(CodeClass clazz) {
+        final List<CodeClass> res = new ArrayList<>(clazz.interfaces.size());
+        for (final String name : clazz.interfaces) {
+            final CodeClass inter = classes.get(name);
+            if (inter != null && inter != clazz) {
+                res.add(inter);
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counts how often elements are used.
+ * The elements and their counts are kept in insertion order in plain arrays,
+ * so no entry objects or boxed counts are created and iteration follows the order of the class files.
+ * An open addressing table of indices into these arrays finds the elements.
+ * Elements are keyed by their hash code, which is consistent with equals,
+ * so elements of different models and elements without id find each other.
+ *
+ * @param <T> the type of the elements
+ */
+final class UsageCounts<T extends UsingElement<T>> {
+    private static final Object[] NO_ELEMS = new Object[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private Object[] elems = NO_ELEMS;
+    private int[] counts = NO_INTS;
+    /**
+     * The index of an element in elems plus one, 0 for an empty slot.
+     */
+    private int[] slots = NO_INTS;
+    private int size;
+
+    int add(T elem) {
+        return add(elem, 1);
+    }
+
+    /**
+     * @param elem  an element
+     * @param count how often the element is used additionally
+     * @return how often the element is used now.
+     */
+    int add(T elem, int count) {
+        if (size * 2 >= slots.length) {
+            grow();
+        }
+        final int pos = find(elem);
+        if (slots[pos] == 0) {
+            if (size == elems.length) {
+                elems = Arrays.copyOf(elems, Math.max(4, size * 2));
+                counts = Arrays.copyOf(counts, elems.length);
+            }
+            elems[size] = elem;
+            slots[pos] = ++size;
+        }
+        final int index = slots[pos] - 1;
+        counts[index] += count;
+        return counts[index];
+    }
+
+    /**
+     * @param elem an element
+     * @return how often the element was used, 0 if it was not used at all.
+     */
+    int remove(Object elem) {
+        if (size == 0 || !(elem instanceof UsingElement)) {
+            return 0;
+        }
+        final int mask = slots.length - 1;
+        int hole = find((UsingElement<?>) elem);
+        final int removed = slots[hole];
+        if (removed == 0) {
+            return 0;
+        }
+        for (int pos = (hole + 1) & mask; slots[pos] != 0; pos = (pos + 1) & mask) {
+            final int home = hash((UsingElement<?>) elems[slots[pos] - 1]) & mask;
+            if (((pos - home) & mask) >= ((pos - hole) & mask)) {
+                slots[hole] = slots[pos];
+                hole = pos;
+            }
+        }
+        slots[hole] = 0;
+        final int count = counts[removed - 1];
+        //keep the insertion order, removing is rare compared to adding
+        System.arraycopy(elems, removed, elems, removed - 1, size - removed);
+        System.arraycopy(counts, removed, counts, removed - 1, size - removed);
+        size--;
+        elems[size] = null;
+        counts[size] = 0;
+        for (int pos = 0; pos < slots.length; pos++) {
+            if (slots[pos] > removed) {
+                slots[pos]--;
+            }
+        }
+        return count;
+    }
+
+    boolean contains(Object elem) {
+        return size > 0 && elem instanceof UsingElement && slots[find((UsingElement<?>) elem)] != 0;
+    }
+
+    /**
+     * @param elem an element
+     * @return how often the element is used, 0 if it is not used at all.
+     */
+    int count(Object elem) {
+        if (size == 0 || !(elem instanceof UsingElement)) {
+            return 0;
+        }
+        final int index = slots[find((UsingElement<?>) elem)];
+        return index == 0 ? 0 : counts[index - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        elems = NO_ELEMS;
+        counts = NO_INTS;
+        slots = NO_INTS;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(ObjIntConsumer<T> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept((T) elems[i], counts[i]);
+        }
+    }
+
+    /**
+     * @return a read-only view of the used elements, in insertion order.
+     */
+    Set<T> asSet() {
+        return new AbstractSet<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new IndexIterator<T>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    T get(int index) {
+                        return (T) elems[index];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return UsageCounts.this.contains(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return a read-only view of the used elements and their counts, in insertion order.
+     */
+    Map<T, Integer> asMap() {
+        return new AbstractMap<T, Integer>() {
+            @Override
+            public Set<Entry<T, Integer>> entrySet() {
+                return new AbstractSet<Entry<T, Integer>>() {
+                    @Override
+                    public Iterator<Entry<T, Integer>> iterator() {
+                        return new IndexIterator<Entry<T, Integer>>() {
+                            @Override
+                            @SuppressWarnings("unchecked")
+                            Entry<T, Integer> get(int index) {
+                                return new SimpleImmutableEntry<>((T) elems[index], counts[index]);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public Integer get(Object key) {
+                final int count = count(key);
+                return count == 0 ? null : count;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return contains(key);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterates over the elements in insertion order.
+     * Not safe against concurrent modification, like the views of the model in general.
+     */
+    private abstract class IndexIterator<E> implements Iterator<E> {
+        private int index;
+
+        abstract E get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(index++);
+        }
+    }
+
+    private int find(UsingElement<?> elem) {
+        final int mask = slots.length - 1;
+        int pos = hash(elem) & mask;
+        while (slots[pos] != 0) {
+            final Object e = elems[slots[pos] - 1];
+            if (e == elem || e.equals(elem)) {
+                break;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    private static int hash(UsingElement<?> elem) {
+        return spread(elem.hashCode());
+    }
+
+    /**
+     * The slots are found by masking the low bits of the result.
+     * The multiplication alone would leave them depending only on the low bits of the hash code,
+     * so the high bits are folded down.
+     */
+    static int spread(int hashCode) {
+        final int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        slots = new int[Math.max(8, slots.length * 2)];
+        for (int i = 0; i < size; i++) {
+            slots[find((UsingElement<?>) elems[i])] = i + 1;
+        }
+    }
+}
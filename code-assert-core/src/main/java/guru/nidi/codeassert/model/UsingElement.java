@@ -16,11 +16,27 @@
 package guru.nidi.codeassert.model;
 
 import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.config.LocationMatcherIndex;
 
 import java.util.Collection;
 import java.util.List;
 
+import static java.util.Collections.emptyList;
+
 public abstract class UsingElement<T> {
+    /**
+     * A dense id given by the model, -1 if the element does not belong to a model.
+     */
+    int id = -1;
+
+    /**
+     * @return a dense id given by the model, unique among the packages or the classes of the model,
+     * -1 if the element does not belong to a model.
+     */
+    public int getId() {
+        return id;
+    }
+
     public abstract T self();
 
     public abstract String getName();
@@ -29,10 +45,34 @@ public abstract class UsingElement<T> {
 
     public abstract Collection<String> usedVia(UsingElement<T> other);
 
+    /**
+     * @param other another element
+     * @return how often this element uses the other one, 0 if it does not use it.
+     */
+    public int usageCount(T other) {
+        return uses(other) ? 1 : 0;
+    }
+
     public abstract boolean isMatchedBy(LocationMatcher matcher);
 
+    /**
+     * @param index an index of matchers
+     * @param <V>   the type of the values in the index
+     * @return the values of all matchers in the index that match this element.
+     */
+    public <V> List<V> matchedBy(LocationMatcherIndex<V> index) {
+        return index.matching(this::isMatchedBy);
+    }
+
     public abstract Collection<T> uses();
 
+    /**
+     * @return the elements using this element, empty if the element does not know its users.
+     */
+    public Collection<T> usedBy() {
+        return emptyList();
+    }
+
     public boolean uses(T elem) {
         return uses().contains(elem);
     }
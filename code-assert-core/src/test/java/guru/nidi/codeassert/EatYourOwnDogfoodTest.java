@@ -52,7 +52,7 @@ public class EatYourOwnDogfoodTest extends CodeAssertCoreJunit5Test {
     protected DependencyResult analyzeDependencies() {
         class GuruNidiCodeassert extends DependencyRuler {
             DependencyRule graphvizLib = denyRule("guru.nidi.graphviz").andAllSub();
-            DependencyRule config, dependency, io, model, util, junit, jacoco;
+            DependencyRule config, dependency, io, model, util, junit, jacoco, metrics;
 
             @Override
             public void defineRules() {
@@ -60,7 +60,8 @@ public class EatYourOwnDogfoodTest extends CodeAssertCoreJunit5Test {
                 config.mayBeUsedBy(all());
                 util.mayBeUsedBy(all());
                 dependency.mayUse(model);
-                junit.mayUse(model, dependency, jacoco);
+                metrics.mayUse(model);
+                junit.mayUse(model, dependency, jacoco, metrics);
                 io.mayUse(jacoco, model, graphvizLib);
             }
         }
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocationMatcherIndexTest {
+    private static final List<String> PATTERNS = asList(
+            "a", "a.*", "a.b", "a.b*", "a.b+", "a.b.Cl", "*b", "+.b", "*", "Cl", "a.*.Cl*", "x.y");
+    private static final List<String> NAMES = asList(
+            "", "a", "ab", "a.b", "a.bc", "a.b.c", "b", "x.y", "x.yz", "a.Cl", "a.b.Cl", "a.b.Cl$In", "Cl", "a.b.Co");
+
+    private final LocationMatcherIndex<String> index = new LocationMatcherIndex<>();
+
+    LocationMatcherIndexTest() {
+        for (final String pattern : PATTERNS) {
+            index.add(new LocationMatcher(Location.of(pattern)), pattern);
+        }
+    }
+
+    @Test
+    void sameAsMatchers() {
+        assertEquals(PATTERNS.size(), index.size());
+        for (final String name : NAMES) {
+            final List<String> packages = new ArrayList<>();
+            final List<String> classes = new ArrayList<>();
+            for (final String pattern : PATTERNS) {
+                final LocationMatcher matcher = new LocationMatcher(Location.of(pattern));
+                if (matcher.matchesPackage(name)) {
+                    packages.add(pattern);
+                }
+                if (matcher.matchesClass(name)) {
+                    classes.add(pattern);
+                }
+            }
+            assertEquals(packages, index.matchingPackage(name), name);
+            assertEquals(classes, index.matchingClass(name), name);
+            assertEquals(packages, index.matching(m -> m.matchesPackage(name)), name);
+            assertEquals(classes, index.matching(m -> m.matchesClass(name)), name);
+        }
+    }
+
+    @Test
+    void packages() {
+        assertEquals(asList("a.*", "a.b", "a.b*", "*b", "+.b", "*"), index.matchingPackage("a.b"));
+        assertEquals(asList("*"), index.matchingPackage("c"));
+        assertEquals(emptyList(), new LocationMatcherIndex<String>().matchingPackage("a"));
+    }
+
+    @Test
+    void classes() {
+        assertEquals(asList("a.*", "a.b", "a.b*", "a.b.Cl", "*b", "+.b", "*", "Cl", "a.*.Cl*"),
+                index.matchingClass("a.b.Cl"));
+        assertEquals(asList("*", "Cl"), index.matchingClass("Cl"));
+    }
+}
@@ -233,4 +233,15 @@ public class LocationMatcherTest {
         assertFalse(m.matchesPackageClass("a", "C"));
     }
 
+    @Test
+    void fullClassName() {
+        final LocationMatcher m = new LocationMatcher(Location.of("a.*.Cl"));
+        assertTrue(m.matchesClass("a.Cl"));
+        assertTrue(m.matchesClass("a.b.Cl"));
+        assertTrue(m.matchesClass("a.b.Cl$Inner"));
+        assertFalse(m.matchesClass("ab.Cl"));
+        assertFalse(m.matchesClass("a.b.Co$Cl"));
+        assertFalse(m.matchesClass("Cl"));
+        assertTrue(new LocationMatcher(Location.of("Cl")).matchesClass("Cl$Inner"));
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleAnalysisTest {
+    private final DependencyMap group = new DependencyMap()
+            .with(0, "a", emptySet(), "b", 10)
+            .with(0, "b", emptySet(), "a", 1)
+            .with(0, "b", emptySet(), "c", 10)
+            .with(0, "c", emptySet(), "a", 2)
+            .with(0, "c", emptySet(), "d", 1)
+            .with(0, "d", emptySet(), "c", 1);
+
+    @Test
+    void shortestCycles() {
+        assertEquals(asList(asList("a", "b"), asList("c", "d")), new CycleAnalysis().shortestCycles(group));
+        assertEquals(asList(asList("a", "b")), new CycleAnalysis().maxCycles(1).shortestCycles(group));
+        assertEquals(asList(), new CycleAnalysis().maxCycles(0).shortestCycles(group));
+    }
+
+    @Test
+    void feedbackArcsPreferSeldomUsedDependencies() {
+        final DependencyMap arcs = new CycleAnalysis().feedbackArcs(group);
+        assertEquals(new DependencyMap()
+                .with(0, "b", emptySet(), "a", 1)
+                .with(0, "c", emptySet(), "a", 2)
+                .with(0, "d", emptySet(), "c", 1), arcs);
+        assertEquals(2, arcs.getDependency("c", "a").getCount());
+        assertAcyclic(group, arcs);
+    }
+
+    @Test
+    void mergedCountsAreSummed() {
+        final DependencyMap merged = new DependencyMap()
+                .with(0, "a", asList("x"), "b", 2)
+                .with(0, "a", asList("y"), "b", 3);
+        assertEquals(5, merged.getDependency("a", "b").getCount());
+        assertEquals(new HashSet<>(asList("x", "y")), merged.getDependency("a", "b").getVias());
+        assertEquals(5, new DependencyMap().with("a", merged).getDependency("a", "b").getCount());
+    }
+
+    @Test
+    void bigGroup() {
+        final int size = 2000;
+        final DependencyMap ring = new DependencyMap();
+        for (int i = 0; i < size; i++) {
+            ring.with(0, name(i), emptySet(), name((i + 1) % size), 1 + i % 7);
+            ring.with(0, name(i), emptySet(), name((i + 2) % size), 1 + i % 5);
+            if (i % 100 == 0) {
+                ring.with(0, name(i + 1), emptySet(), name(i), 1);
+            }
+        }
+        final List<List<String>> cycles = new CycleAnalysis().maxCycles(3).shortestCycles(ring);
+        assertEquals(3, cycles.size());
+        for (final List<String> cycle : cycles) {
+            for (int i = 0; i < cycle.size(); i++) {
+                assertNotNull(ring.getDependency(cycle.get(i), cycle.get((i + 1) % cycle.size())));
+            }
+            assertEquals(2, cycle.size());
+        }
+        final DependencyMap arcs = new CycleAnalysis().feedbackArcs(ring);
+        assertTrue(arcs.getElements().size() <= 22);
+        assertAcyclic(ring, arcs);
+    }
+
+    @Test
+    void timeBudget() {
+        final DependencyMap arcs = new CycleAnalysis().maxMillis(0).feedbackArcs(group);
+        assertAcyclic(group, arcs);
+    }
+
+    private static String name(int i) {
+        return String.format("n%05d", i);
+    }
+
+    private static void assertAcyclic(DependencyMap group, DependencyMap arcs) {
+        final DependencyMap rest = new DependencyMap();
+        for (final String from : group.getElements()) {
+            for (final Map.Entry<String, DependencyMap.Info> to : group.getDependencies(from).entrySet()) {
+                if (arcs.getDependency(from, to.getKey()) == null) {
+                    rest.with(0, from, emptySet(), to.getKey());
+                }
+            }
+        }
+        assertEquals(asList(), new CycleAnalysis().maxMillis(Long.MAX_VALUE / 2_000_000).shortestCycles(rest));
+    }
+}
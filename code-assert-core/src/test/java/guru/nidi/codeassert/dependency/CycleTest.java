@@ -59,6 +59,28 @@ public class CycleTest {
                 analyze(Scope.PACKAGES, new DependencyCollector()), hasNoCycles());
     }
 
+    @Test
+    void packageCyclesAnalyzed() {
+        assertMatcher("%n"
+                        + "CYCLE        This group of elements has mutual dependencies:%n"
+                        + "  Shortest cycles:%n"
+                        + "    guru.nidi.codeassert.dependency.a -> guru.nidi.codeassert.dependency.c -> guru.nidi.codeassert.dependency.a%n"
+                        + "    guru.nidi.codeassert.dependency.b -> guru.nidi.codeassert.dependency.c -> guru.nidi.codeassert.dependency.b%n"
+                        + "  Remove these dependencies to break all cycles:%n"
+                        + "    guru.nidi.codeassert.dependency.c ->%n"
+                        + "      guru.nidi.codeassert.dependency.a (by guru.nidi.codeassert.dependency.c.C1)%n"
+                        + "      guru.nidi.codeassert.dependency.b (by guru.nidi.codeassert.dependency.c.C1, guru.nidi.codeassert.dependency.c.C2)%n"
+                        + "CYCLE        This group of elements has mutual dependencies:%n"
+                        + "  Shortest cycles:%n"
+                        + "    guru.nidi.codeassert.dependency.a.a -> guru.nidi.codeassert.dependency.b.a -> guru.nidi.codeassert.dependency.a.a%n"
+                        + "    guru.nidi.codeassert.dependency.b.a -> guru.nidi.codeassert.dependency.c.a -> guru.nidi.codeassert.dependency.b.a%n"
+                        + "  Remove these dependencies to break all cycles:%n"
+                        + "    guru.nidi.codeassert.dependency.b.a ->%n"
+                        + "      guru.nidi.codeassert.dependency.a.a (by guru.nidi.codeassert.dependency.b.a.Ba1)%n"
+                        + "      guru.nidi.codeassert.dependency.c.a (by guru.nidi.codeassert.dependency.b.a.Ba2)%n",
+                analyze(Scope.PACKAGES, new DependencyCollector()), hasNoCycles(new CycleAnalysis()));
+    }
+
     @Test
     void packageCyclesWithExceptions() {
         final DependencyCollector collector = new DependencyCollector()
@@ -160,6 +160,16 @@ public class DependencyRulesTest {
                 new DependencyAnalyzer(model).rules(rules).analyze(), matchesRulesIgnoringUndefined());
     }
 
+    @Test
+    void rulesAddedAfterAnAnalysis() {
+        final DependencyRules rules = DependencyRules.allowAll().withExternals("java.*", "org.*");
+        rules.addRule(dep("a"));
+        assertTrue(rules.analyzeRules(Scope.packages(model)).getUndefined().contains(dep("b")));
+        final DependencyRules copy = rules.parallelism(2);
+        rules.addRule(dep("b"));
+        assertFalse(copy.analyzeRules(Scope.packages(model)).getUndefined().contains(dep("b")));
+    }
+
     @Test
     void allow() {
         final DependencyRules rules = DependencyRules.allowAll().withExternals("java.*", "org.*");
@@ -400,12 +410,13 @@ public class DependencyRulesTest {
                         .with(0, dep("CycleTest"), set(), dep("DependencyAnalyzer"))
                         .with(0, dep("CycleTest"), set(), dep("DependencyResult"))
                         .with(0, dep("CycleTest"), set(), dep("DependencyCollector"))
+                        .with(0, dep("CycleTest"), set(), dep("CycleAnalysis"))
                         .with(0, dep("CycleTest"), set(), ca("junit.CodeAssertCoreMatchers")),
                 result.denied);
         assertEquals(new DependencyMap()
                         .with(0, dep("CycleTest"), set(), ca("junit.CodeAssertCoreMatchers")),
                 result3.denied);
-        assertEquals(68, result.undefined.size());
+        assertEquals(78, result.undefined.size());
     }
 
     private static String ca(String s) {
@@ -422,6 +433,138 @@ public class DependencyRulesTest {
         return res;
     }
 
+    @Test
+    void parallel() {
+        final DependencyRules rules = DependencyRules.denyAll().withExternals("java.*", "org.*");
+        final DependencyRule a = rules.addRule(dep("a"));
+        final DependencyRule b = rules.addRule(dep("b"));
+        final DependencyRule c = rules.addRule(dep("c"));
+        final DependencyRule all = rules.addRule(ca("*"));
+        a.mustUse(b);
+        b.mayUse(c).mustNotUse(a);
+        c.mayBeUsedBy(a);
+        all.mayUse(all);
+
+        for (final Scope<?> scope : asList(Scope.packages(model), Scope.classes(model))) {
+            assertEquals(rules.analyzeRules(scope), rules.parallelism(4).analyzeRules(scope));
+        }
+        assertThrows(IllegalArgumentException.class, () -> rules.parallelism(0));
+    }
+
+    @Test
+    void packageVerdicts() {
+        final DependencyRules rules = DependencyRules.denyAll().withExternals("java.*", "org.*");
+        final DependencyRule a = rules.addRule(dep("a"));
+        final DependencyRule b = rules.addRule(dep("b"));
+        final DependencyRule c = rules.addRule(dep("c"));
+        final DependencyRule b1 = rules.addRule(dep("b.B1"));
+        final DependencyRule c1 = rules.addRule(dep("c.C1"));
+        final DependencyRule all = rules.addRule(ca("*"));
+        a.mayUse(c);
+        b.mayUse(a, c);
+        b1.mustNotUse(a);
+        c.mayUse(b).mustNotBeUsedBy(b1);
+        c1.mayBeUsedBy(a).mayUse(a);
+        all.mayUse(all);
+
+        final Dependencies result = rules.packageVerdicts(true).analyzeRules(Scope.classes(model));
+        assertEquals(rules.analyzeRules(Scope.classes(model)), result);
+        assertTrue(result.getDenied().getDependencies(dep("b.B1")).containsKey(dep("a.A1")));
+        assertTrue(result.getDenied().getDependencies(dep("b.B1")).containsKey(dep("c.C1")));
+        assertFalse(result.getDenied().getDependencies(dep("c.C2")).containsKey(dep("b.B1")));
+    }
+
+    @Test
+    void packageVerdictsWithClassSpecificUsers() {
+        for (final boolean packageAllowed : new boolean[]{false, true}) {
+            final DependencyRules rules = DependencyRules.denyAll().withExternals("java.*", "org.*");
+            final DependencyRule a = rules.addRule(dep("a"));
+            final DependencyRule b = rules.addRule(dep("b"));
+            final DependencyRule c = rules.addRule(dep("c"));
+            final DependencyRule b1 = rules.addRule(dep("b.B1"));
+            a.mayUse(c);
+            b.mayUse(a, c);
+            b1.mayUse(a, c);
+            if (packageAllowed) {
+                c.mayUse(a, b);
+                b1.mustNotBeUsedBy(rules.rule(dep("c.C1")));
+            } else {
+                c.mayUse(a);
+                b1.mayBeUsedBy(rules.rule(dep("c.C2")));
+            }
+
+            final Dependencies result = rules.packageVerdicts(true).analyzeRules(Scope.classes(model));
+            assertEquals(rules.analyzeRules(Scope.classes(model)), result);
+            assertTrue(result.getDenied().getDependencies(dep("c.C1")).containsKey(dep("b.B1")));
+            assertFalse(result.getDenied().getDependencies(dep("c.C2")).containsKey(dep("b.B1")));
+        }
+    }
+
+    @Test
+    void reach() {
+        final DependencyRules rules = DependencyRules.allowAll().withExternals("java.*", "org.*");
+        final DependencyRule a = rules.addRule(dep("a"));
+        final DependencyRule aa = rules.addRule(dep("a.a"));
+        final DependencyRule b = rules.addRule(dep("b"));
+        final DependencyRule ba = rules.addRule(dep("b.a"));
+        a.mustNotReach(b).mustReach(b, aa);
+        ba.mustNotReach(aa);
+
+        final Dependencies result = rules.analyzeRules(Scope.packages(model));
+        assertEquals(new DependencyMap()
+                        .with(b.pattern.specificity(), dep("a"), set(dep("c")), dep("b"))
+                        .with(ba.pattern.specificity(), dep("b.a"), set(dep("a.a"), dep("c.a")), dep("a.a")),
+                result.getDenied());
+        assertEquals(new DependencyMap()
+                        .with(a.pattern.specificity(), dep("a"), set(), dep("a.a")),
+                result.getMissing());
+    }
+
+    @Test
+    void layers() {
+        final DependencyRules rules = DependencyRules.allowAll().withExternals("java.*", "org.*");
+        final DependencyRule a = DependencyRule.allowAll(dep("a"));
+        final DependencyRule b = DependencyRule.allowAll(dep("b"));
+        final DependencyRule c = DependencyRule.allowAll(dep("c"));
+        final DependencyRule d = DependencyRule.allowAll(dep("d"));
+        final Layers layers = rules.layers(c, b, a, d);
+        final int spec = a.pattern.specificity();
+
+        final Dependencies relaxed = rules.analyzeRules(Scope.packages(model));
+        assertEquals(new DependencyMap()
+                        .with(spec, dep("a"), set(dep("a.A1")), dep("c"))
+                        .with(spec, dep("b"), set(dep("b.B1")), dep("c")),
+                relaxed.getDenied());
+        assertEquals(patterns(dep("d")), relaxed.getNotExisting());
+        assertFalse(relaxed.getUndefined().contains(dep("a")));
+
+        layers.strict();
+        assertEquals(new DependencyMap()
+                        .with(spec, dep("a"), set(dep("a.A1")), dep("c"))
+                        .with(spec, dep("b"), set(dep("b.B1")), dep("c"))
+                        .with(spec, dep("c"), set(dep("c.C1")), dep("a")),
+                rules.analyzeRules(Scope.packages(model)).getDenied());
+    }
+
+    @Test
+    void ambiguous() {
+        final DependencyRules rules = DependencyRules.denyAll().withExternals("java.*", "org.*");
+        final DependencyRule a = rules.addRule(dep("a"));
+        final DependencyRule b = rules.addRule(dep("b"));
+        final DependencyRule c = rules.addRule(dep("c"));
+        b.mayUse(a).mustNotUse(a);
+        c.mayUse(a).mustNotUse(a);
+
+        final AmbiguousRuleException sequential = assertThrows(AmbiguousRuleException.class,
+                () -> rules.analyzeRules(Scope.packages(model)));
+        final AmbiguousRuleException parallel = assertThrows(AmbiguousRuleException.class,
+                () -> rules.parallelism(4).analyzeRules(Scope.packages(model)));
+        assertSame(b, sequential.getRule());
+        assertSame(b, parallel.getRule());
+        assertEquals(sequential.getFrom(), parallel.getFrom());
+        assertEquals(sequential.getTo(), parallel.getTo());
+    }
+
     private static Set<LocationMatcher> patterns(String... ss) {
         final Set<LocationMatcher> res = new TreeSet<>();
         for (final String s : ss) {
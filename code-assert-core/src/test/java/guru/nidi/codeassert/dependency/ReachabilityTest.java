@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import guru.nidi.codeassert.model.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityTest {
+    private static final String DEP = "guru.nidi.codeassert.dependency.";
+    private static Model model;
+
+    @BeforeAll
+    static void analyze() {
+        model = Model.from(AnalyzerConfig.maven().test("guru/nidi/codeassert/dependency").getClasses()).read();
+    }
+
+    @Test
+    void classes() {
+        final Reachability<CodeClass> reach = Reachability.of(Scope.classes(model));
+        assertTrue(reach.reaches(clazz("c.C2"), clazz("a.A1")));
+        assertTrue(reach.reaches(clazz("a.A1"), clazz("b.B1")));
+        assertFalse(reach.reaches(clazz("a.A1"), clazz("c.C2")));
+        assertFalse(reach.reaches(clazz("b.B2"), clazz("a.A1")));
+        assertTrue(reach.reaches(clazz("a.A1"), clazz("a.A1")));
+        assertFalse(reach.reaches(clazz("a.A2"), clazz("a.A2")));
+    }
+
+    @Test
+    void targets() {
+        final Reachability<CodeClass> reach = Reachability.of(Scope.classes(model),
+                c -> c.getName().startsWith(DEP + "a.") || c.getName().startsWith(DEP + "b."));
+        assertEquals(set("a.A1", "b.B1"), names(reach.reachedTargets(clazz("c.C2"))));
+        assertEquals(set(), names(reach.reachedTargets(clazz("a.A2"))));
+        assertThrows(IllegalArgumentException.class, () -> reach.reaches(clazz("a.A1"), clazz("c.C1")));
+    }
+
+    @Test
+    void packages() {
+        final Reachability<CodePackage> reach = Reachability.of(Scope.packages(model));
+        final Map<String, CodePackage> packs = new HashMap<>();
+        for (final CodePackage pack : model.getPackages()) {
+            packs.put(pack.getName(), pack);
+        }
+        assertTrue(reach.reaches(packs.get(DEP + "a"), packs.get(DEP + "b")));
+        assertTrue(reach.reaches(packs.get(DEP + "a.a"), packs.get(DEP + "c.a")));
+        assertFalse(reach.reaches(packs.get(DEP + "a"), packs.get(DEP + "a.a")));
+    }
+
+    @Test
+    void sameAsTraversal() {
+        final Model main = Model.from(AnalyzerConfig.maven().main().getClasses()).read();
+        final Reachability<CodeClass> reach = Reachability.of(Scope.classes(main));
+        for (final CodeClass from : main.getClasses()) {
+            final Set<CodeClass> reached = new HashSet<>();
+            final Deque<CodeClass> todo = new ArrayDeque<>(from.uses());
+            while (!todo.isEmpty()) {
+                final CodeClass next = todo.pop();
+                if (reached.add(next)) {
+                    todo.addAll(next.uses());
+                }
+            }
+            assertEquals(reached, new HashSet<>(reach.reachedTargets(from)), from.getName());
+            for (final CodeClass to : main.getClasses()) {
+                assertEquals(reached.contains(to), reach.reaches(from, to));
+            }
+        }
+    }
+
+    private static CodeClass clazz(String name) {
+        for (final CodeClass c : model.getClasses()) {
+            if (c.getName().equals(DEP + name)) {
+                return c;
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    private static Set<String> names(List<CodeClass> classes) {
+        final Set<String> res = new HashSet<>();
+        for (final CodeClass c : classes) {
+            res.add(c.getName().substring(DEP.length()));
+        }
+        return res;
+    }
+
+    private static Set<String> set(String... ss) {
+        return new HashSet<>(Arrays.asList(ss));
+    }
+}
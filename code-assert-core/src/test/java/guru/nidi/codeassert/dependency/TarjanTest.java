@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.dependency;
+
+import guru.nidi.codeassert.config.LocationMatcher;
+import guru.nidi.codeassert.model.UsingElement;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TarjanTest {
+    @Test
+    void deepCycleNeedsNoStack() throws InterruptedException {
+        final int count = 10_000;
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(new Node("a.N" + i));
+        }
+        for (int i = 0; i < count; i++) {
+            nodes.get(i).uses.add(nodes.get((i + 1) % count));
+        }
+        final AtomicReference<Set<DependencyMap>> cycles = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        //a recursive implementation would overflow this small stack
+        final Thread thread = new Thread(null, () -> {
+            try {
+                cycles.set(new Tarjan<Node>().analyzeCycles(nodes, false));
+            } catch (StackOverflowError e) {
+                error.set(e);
+            }
+        }, "tarjan", 64 * 1024);
+        thread.start();
+        thread.join();
+        assertNull(error.get());
+        assertEquals(1, cycles.get().size());
+        assertEquals(count, cycles.get().iterator().next().getElements().size());
+    }
+
+    private static class Node extends UsingElement<Node> {
+        final String name;
+        final List<Node> uses = new ArrayList<>();
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Node self() {
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getPackageName() {
+            return name.substring(0, name.lastIndexOf('.'));
+        }
+
+        @Override
+        public Collection<String> usedVia(UsingElement<Node> other) {
+            return emptyList();
+        }
+
+        @Override
+        public boolean isMatchedBy(LocationMatcher matcher) {
+            return matcher.matchesClass(name);
+        }
+
+        @Override
+        public Collection<Node> uses() {
+            return uses;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.metrics;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import guru.nidi.codeassert.config.For;
+import guru.nidi.codeassert.model.Model;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static guru.nidi.codeassert.metrics.PackageMetric.*;
+import static java.lang.System.lineSeparator;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsTest {
+    private static final String BASE = "guru.nidi.codeassert.dependency";
+    private final Model model = Model.from(AnalyzerConfig.maven().test("guru/nidi/codeassert/dependency").getClasses()).read();
+
+    @Test
+    void packages() {
+        final List<PackageMetrics> metrics = PackageMetrics.of(model);
+        assertEquals(10, metrics.size());
+        assertEquals(BASE, metrics.get(0).getName());
+        final PackageMetrics cb = metrics.get(9);
+        assertEquals(BASE + ".c.b", cb.getName());
+        assertEquals(1, cb.getClassCount());
+        assertEquals(2, cb.getAfferentCoupling());
+        assertEquals(1, cb.getEfferentCoupling());
+        assertEquals(1 / 3d, cb.getInstability(), 1e-9);
+        assertEquals(0, cb.getAbstractness(), 1e-9);
+        assertEquals(2 / 3d, cb.getDistance(), 1e-9);
+    }
+
+    @Test
+    void formulas() {
+        final PackageMetrics metrics = new PackageMetrics("p", 4, 1, 3, 1);
+        assertEquals(.25, metrics.value(INSTABILITY), 1e-9);
+        assertEquals(.25, metrics.value(ABSTRACTNESS), 1e-9);
+        assertEquals(.5, metrics.value(DISTANCE), 1e-9);
+        final PackageMetrics empty = new PackageMetrics("p", 0, 0, 0, 0);
+        assertEquals(0, empty.getInstability(), 1e-9);
+        assertEquals(0, empty.getAbstractness(), 1e-9);
+        assertEquals(1, empty.getDistance(), 1e-9);
+    }
+
+    @Test
+    void tooManyValues() {
+        assertThrows(IllegalArgumentException.class, () -> new MetricsCollector(INSTABILITY)
+                .just(For.allPackages().setMaxima(.5, .5)));
+    }
+
+    @Test
+    void negativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> For.allPackages().setMaxima(-1));
+    }
+
+    @Test
+    void allPackages() {
+        final MetricsResult result = analyze(new MetricsCollector(EFFERENT_COUPLING, INSTABILITY, DISTANCE)
+                .just(For.allPackages().setMaxima(4, .9, .45)));
+        assertOutput(result, ""
+                + "guru.nidi.codeassert.dependency                               8.00 /   4.00      1.00 /   0.90      0.00 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.a                             2.00 /   4.00      0.50 /   0.90      0.50 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.a.a                           2.00 /   4.00      0.50 /   0.90      0.50 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.a.b                           1.00 /   4.00      0.50 /   0.90      0.50 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.b.a                           5.00 /   4.00      0.71 /   0.90      0.29 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.b.b                           3.00 /   4.00      1.00 /   0.90      0.00 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.c.b                           1.00 /   4.00      0.33 /   0.90      0.67 /   0.45    ");
+    }
+
+    @Test
+    void explicit() {
+        final MetricsResult result = analyze(new MetricsCollector(EFFERENT_COUPLING, INSTABILITY, DISTANCE)
+                .just(For.allPackages().setMaxima(4, .9, .45))
+                .just(For.loc(BASE + ".a*").setMaxima(4, .9, .5))
+                .just(For.thePackage(BASE).setNoMaxima())
+                .just(For.thePackage(BASE + ".c.b").setMaxima(4, .9)));
+        assertOutput(result, ""
+                + "guru.nidi.codeassert.dependency.b.a                           5.00 /   4.00      0.71 /   0.90      0.29 /   0.45    %n"
+                + "guru.nidi.codeassert.dependency.b.b                           3.00 /   4.00      1.00 /   0.90      0.00 /   0.45    ");
+    }
+
+    private MetricsResult analyze(MetricsCollector collector) {
+        return new MetricsAnalyzer(model, collector).analyze();
+    }
+
+    private void assertOutput(MetricsResult result, String expected) {
+        final StringDescription sd = new StringDescription();
+        new MetricsMatcher().describeMismatchSafely(result, sd);
+        assertThat(sd.toString(), equalTo(("Found packages exceeding metric limits:%n"
+                + "Analyzed metrics:                                           EFFERENT_COUPLING  INSTABILITY        DISTANCE           %n"
+                + expected).replace("%n", lineSeparator())));
+    }
+}
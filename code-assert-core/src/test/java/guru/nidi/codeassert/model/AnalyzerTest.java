@@ -28,11 +28,11 @@ class AnalyzerTest {
 
     @Test
     void packages() {
-        assertEquals(41, model.getPackages().size());
+        assertEquals(45, model.getPackages().size());
     }
 
     @Test
     void classes() {
-        assertThat(model.getClasses().size(), anyOf(equalTo(139), equalTo(140), equalTo(141), equalTo(142)));
+        assertThat(model.getClasses().size(), anyOf(equalTo(213), equalTo(214), equalTo(215), equalTo(216)));
     }
 }
@@ -18,14 +18,16 @@ package guru.nidi.codeassert.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.*;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -46,6 +48,21 @@ public class ClassFileParserTest {
         assertThrows(IOException.class, () -> parse(Path.testJava("ExampleTest")));
     }
 
+    @Test
+    void truncatedClassFile() throws IOException {
+        final byte[] bytes = Files.readAllBytes(Path.testClass("ExampleConcreteClass").toPath());
+        assertThrows(IOException.class, () -> parser.parse(new ByteArrayInputStream(bytes, 0, 100), new Model()));
+    }
+
+    @Test
+    void readFully() throws IOException {
+        final byte[] bytes = new byte[]{1, 2, 3};
+        assertArrayEquals(bytes, ClassFileParser.readFully(new ByteArrayInputStream(bytes), 3));
+        assertArrayEquals(bytes, ClassFileParser.readFully(new ByteArrayInputStream(bytes), -1));
+        assertThrows(IOException.class, () -> ClassFileParser.readFully(new ByteArrayInputStream(bytes), 2));
+        assertThrows(IOException.class, () -> ClassFileParser.readFully(new ByteArrayInputStream(bytes), 4));
+    }
+
     @Test
     void className() throws IOException {
         final CodeClass clazz = parse(Path.testClass("ExampleConcreteClass"));
@@ -227,6 +244,24 @@ public class ClassFileParserTest {
                 model("p1.ExampleInnerAnnotation"));
     }
 
+    @Test
+    void constantPoolUtf8() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(5);
+        out.writeByte(Constant.UTF8);
+        out.writeUTF("a/b/C");
+        out.writeByte(Constant.LONG);
+        out.writeLong(42);
+        out.writeByte(Constant.UTF8);
+        out.writeUTF("grüße\u0000€");
+        final ConstantPool pool = ConstantPool.fromData(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals("a/b/C", pool.getUtf8(1));
+        assertEquals("grüße\u0000€", pool.getUtf8(4));
+        assertThrows(IOException.class, () -> pool.getUtf8(2));
+        assertThrows(IOException.class, () -> pool.getUtf8(5));
+    }
+
     private String model(String s) {
         return "guru.nidi.codeassert.model." + s;
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeClassTest {
+    final Model model = Model.from(AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses()).read();
+
+    @Test
+    void usedBy() {
+        final CodeClass abstractClass = model.classes.get("guru.nidi.codeassert.model.ExampleAbstractClass");
+        final CodeClass concreteClass = model.classes.get("guru.nidi.codeassert.model.ExampleConcreteClass");
+        assertTrue(abstractClass.usedBy().contains(concreteClass));
+
+        for (final CodeClass clazz : model.getClasses()) {
+            final Set<CodeClass> expected = new HashSet<>();
+            for (final CodeClass user : model.getClasses()) {
+                if (user.usedClasses().contains(clazz)) {
+                    expected.add(user);
+                }
+            }
+            assertEquals(expected, new HashSet<>(clazz.usedBy()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodePackageTest {
+    final Model model = Model.from(AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses()).read();
+
+    @Test
+    void usedBy() {
+        final CodePackage p2 = model.packages.get("guru.nidi.codeassert.model.p2");
+        final CodePackage user = model.packages.get("guru.nidi.codeassert.model");
+        assertTrue(p2.usedBy().contains(user));
+        assertTrue(user.usedVia(p2).contains("guru.nidi.codeassert.model.ExampleConcreteClass"));
+
+        for (final CodePackage pack : model.getPackages()) {
+            final Set<CodePackage> expected = new HashSet<>();
+            for (final CodePackage other : model.getPackages()) {
+                final Set<String> vias = new HashSet<>();
+                for (final CodeClass clazz : other.getClasses()) {
+                    if (clazz.uses(pack)) {
+                        vias.add(clazz.getName());
+                    }
+                }
+                assertEquals(vias, other.usedVia(pack));
+                if (other != pack && !vias.isEmpty()) {
+                    expected.add(other);
+                }
+            }
+            assertEquals(expected, new HashSet<>(pack.usedBy()));
+        }
+    }
+
+    @Test
+    void usedPackageCounts() {
+        final CodePackage p2 = model.packages.get("guru.nidi.codeassert.model.p2");
+        final CodePackage user = model.packages.get("guru.nidi.codeassert.model");
+        assertTrue(user.usageCount(p2) > 0);
+
+        for (final CodePackage pack : model.getPackages()) {
+            final Map<CodePackage, Integer> expected = new HashMap<>();
+            for (final CodeClass clazz : pack.getClasses()) {
+                clazz.usedPackageCounts().forEach((p, n) -> {
+                    if (p != pack) {
+                        expected.merge(p, n, Integer::sum);
+                    }
+                });
+            }
+            assertEquals(expected, pack.usedPackageCounts());
+            assertEquals(expected.keySet(), new HashSet<>(pack.uses()));
+            expected.forEach((p, n) -> assertEquals((int) n, pack.usageCount(p)));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCacheTest {
+    private static final String CONCRETE = "guru.nidi.codeassert.model.ExampleConcreteClass";
+    private final File dir = new File("target/model-cache");
+    private final File cacheDir = new File(dir, "cache");
+    private final File zip = new File(dir, "test.zip");
+    private final File clazz = new File(dir, "ExampleConcreteClass.class");
+
+    @BeforeEach
+    void init() throws IOException {
+        dir.mkdirs();
+        new File(cacheDir, "model.cache").delete();
+        Files.copy(Path.testResource("test.zip").toPath(), zip.toPath(), REPLACE_EXISTING);
+        Files.copy(Path.testClass("ExampleConcreteClass").toPath(), clazz.toPath(), REPLACE_EXISTING);
+    }
+
+    @Test
+    void cached() throws IOException {
+        final List<String> expected = parsedNames(Model.from(zip, clazz).read());
+        assertEquals(expected, parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).read()));
+
+        final ModelCache cache = load();
+        assertEquals(5, cache.get(zip).size());
+        assertEquals(asList(CONCRETE), cache.get(clazz).stream().map(p -> p.name).collect(toList()));
+        assertEquals(expected, parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).read()));
+        assertEquals(expected, parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).parallelism(2).read()));
+    }
+
+    @Test
+    void touched() throws IOException {
+        final List<String> expected = parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).read());
+        clazz.setLastModified(clazz.lastModified() - 10000);
+        zip.setLastModified(zip.lastModified() - 10000);
+
+        final ModelCache cache = load();
+        assertNotNull(cache.get(zip));
+        assertNotNull(cache.get(clazz));
+        assertEquals(expected, parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).parallelism(2).read()));
+    }
+
+    @Test
+    void changed() throws IOException {
+        Model.from(zip, clazz).cacheDir(cacheDir).read();
+        Files.copy(Path.testClass("ExampleAbstractClass").toPath(), clazz.toPath(), REPLACE_EXISTING);
+
+        assertNull(load().get(clazz));
+        final Model model = Model.from(zip, clazz).cacheDir(cacheDir).parallelism(2).read();
+        assertTrue(model.classes.get("guru.nidi.codeassert.model.ExampleAbstractClass").isParsed());
+        assertFalse(model.classes.containsKey(CONCRETE));
+    }
+
+    @Test
+    void corrupt() throws IOException {
+        cacheDir.mkdirs();
+        Files.write(new File(cacheDir, "model.cache").toPath(), asList("corrupt"));
+
+        assertEquals(parsedNames(Model.from(zip, clazz).read()),
+                parsedNames(Model.from(zip, clazz).cacheDir(cacheDir).read()));
+        assertNotNull(load().get(zip));
+    }
+
+    private ModelCache load() {
+        return ModelCache.load(cacheDir, Collections.emptyList());
+    }
+
+    private static List<String> parsedNames(Model model) {
+        return model.getClasses().stream()
+                .filter(CodeClass::isParsed).map(CodeClass::getName).sorted().collect(toList());
+    }
+}
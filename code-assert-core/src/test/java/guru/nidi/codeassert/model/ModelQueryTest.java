@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelQueryTest {
+    private static final String M = "guru.nidi.codeassert.model.";
+    private final Model model = Model.from(
+            AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses()).read();
+
+    @Test
+    void annotations() {
+        final ModelQuery query = model.query();
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .annotatedWith("org.junit.jupiter.api.Tag").stream()));
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .withMembersAnnotatedWith(M + "ExampleAnnotation").stream()));
+        assertEquals(asList("f"), query.membersAnnotatedWith(M + "ExampleAnnotation")
+                .map(MemberInfo::getName).collect(toList()));
+        assertEquals(set(), names(query.classes().annotatedWith("not.Existing").stream()));
+    }
+
+    @Test
+    void subtypes() {
+        final ModelQuery query = model.query();
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .subtypesOf(M + "ExampleAbstractClass").stream()));
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .allSubtypesOf("java.lang.Object").subtypesOf(M + "ExampleAbstractClass").stream()));
+        assertTrue(names(query.classes().allSubtypesOf("java.lang.Object").stream()).contains("ExampleConcreteClass"));
+        assertFalse(names(query.classes().subtypesOf("java.lang.Object").stream()).contains("ExampleConcreteClass"));
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .inPackageTree("guru.nidi.codeassert").allSubtypesOf(M + "ExampleAbstractClass").stream()));
+    }
+
+    @Test
+    void interfaces() {
+        final ModelQuery query = model.query();
+        assertEquals(set("ExampleAbstractClass"), names(query.classes()
+                .subtypesOf(M + "ExampleInterface").stream()));
+        assertEquals(set("ExampleAbstractClass", "ExampleConcreteClass"), names(query.classes()
+                .allSubtypesOf(M + "ExampleInterface").stream()));
+        assertEquals(set("ExampleAbstractClass", "ExampleConcreteClass"), names(query.classes()
+                .allSubtypesOf("java.io.Serializable").inPackageTree("guru").stream()));
+        assertEquals(set("ExampleConcreteClass"), names(query.classes()
+                .inPackageTree("guru").allSubtypesOf(M + "ExampleInterface")
+                .allSubtypesOf(M + "ExampleAbstractClass").stream()));
+    }
+
+    @Test
+    void hierarchy() {
+        final TypeHierarchy hierarchy = model.query().hierarchy();
+        assertSame(hierarchy, model.query().hierarchy());
+        assertTrue(hierarchy.isSubtypeOf(M + "ExampleConcreteClass", M + "ExampleInterface"));
+        assertTrue(hierarchy.isSubtypeOf(M + "ExampleConcreteClass", "java.io.Serializable"));
+        assertTrue(hierarchy.isSubtypeOf(M + "ExampleConcreteClass", "java.lang.Object"));
+        assertTrue(hierarchy.isSubtypeOf(M + "ExampleConcreteClass", M + "ExampleConcreteClass"));
+        assertTrue(hierarchy.isSubtypeOf(M + "p4.p8.Type8", "java.lang.Exception"));
+        assertFalse(hierarchy.isSubtypeOf(M + "ExampleInterface", M + "ExampleConcreteClass"));
+        assertFalse(hierarchy.isSubtypeOf(M + "p4.p8.Type8", M + "ExampleInterface"));
+        assertFalse(hierarchy.isSubtypeOf(M + "p4.p8.Type8", "not.Existing"));
+        assertEquals(set("p4.p8.Type8", "p4.p9.Type9"), names(hierarchy.subtypesOf("java.lang.Exception").stream()));
+        assertEquals(set("ExampleAbstractClass", "ExampleConcreteClass"),
+                names(hierarchy.subtypesOf(M + "ExampleInterface").stream()));
+        assertEquals(set(), names(hierarchy.subtypesOf(M + "ExampleConcreteClass").stream()));
+        assertEquals(set(), names(hierarchy.subtypesOf("not.Existing").stream()));
+    }
+
+    @Test
+    void packageTree() {
+        final ModelQuery query = model.query();
+        assertEquals(set("p5.Annotations", "p5.ClassRetentionAnnotation", "p5.SourceRetentionAnnotation",
+                "p5.package-info"), names(query.classes().inPackageTree(M + "p5").stream()));
+        assertEquals(set("p5.Annotations", "p5.package-info"), names(query.classes()
+                .annotatedWith(M + "ExampleAnnotation").inPackageTree(M + "p5").stream()));
+        assertEquals(names(query.classes().inPackageTree(M + "p4").stream()),
+                names(query.classes().matching(c -> c.getName().startsWith(M + "p4.")).stream()));
+    }
+
+    @Test
+    void sourceFile() {
+        final String file = "guru/nidi/codeassert/model/ExampleConcreteClass.java";
+        assertEquals(set("ExampleConcreteClass", "ExampleConcreteClass$ExampleInnerClass", "ExamplePackageClass"),
+                names(model.query().classes().inSourceFile(file).stream()));
+        assertEquals(set("ExamplePackageClass"), names(model.query().classes()
+                .matching(c -> !c.getName().contains("$")).inSourceFile(file)
+                .matching(c -> !c.getSimpleName().startsWith("ExampleConcrete")).stream()));
+    }
+
+    @Test
+    void changedModel() {
+        final ModelQuery query = model.query();
+        assertSame(query, model.query());
+        final int classes = model.getClasses().size();
+        new InternalTypeInPublicApiMatcher().matches(model);
+        assertEquals(classes, model.getClasses().size());
+        assertSame(query, model.query());
+
+        model.getOrCreateClass("new.Clazz");
+        assertThrows(IllegalStateException.class, () -> query.classes().stream());
+        assertNotSame(query, model.query());
+        assertEquals(set("new.Clazz"), names(model.query().classes().inPackageTree("new").stream()));
+    }
+
+    @Test
+    void filledPlaceholder() {
+        final File abstractClass = Path.testClass("ExampleAbstractClass");
+        final Model model = Model.from(
+                Path.testClass("ExampleConcreteClass"), Path.testClass("ExampleInterface")).read();
+        for (final CodeClass clazz : Model.from(abstractClass).read().getClasses()) {
+            model.getOrCreateClass(clazz.getName());
+        }
+        final int classes = model.getClasses().size();
+        final ModelQuery query = model.query();
+        assertFalse(query.hierarchy().isSubtypeOf(M + "ExampleConcreteClass", M + "ExampleInterface"));
+
+        model.read(asList(abstractClass));
+        assertEquals(classes, model.getClasses().size());
+        assertThrows(IllegalStateException.class, query::hierarchy);
+        assertTrue(model.query().hierarchy().isSubtypeOf(M + "ExampleConcreteClass", M + "ExampleInterface"));
+    }
+
+    private static Set<String> names(Stream<CodeClass> classes) {
+        return classes.map(c -> c.getName().startsWith(M) ? c.getName().substring(M.length()) : c.getName())
+                .collect(toCollection(TreeSet::new));
+    }
+
+    private static Set<String> set(String... ss) {
+        return new TreeSet<>(asList(ss));
+    }
+}
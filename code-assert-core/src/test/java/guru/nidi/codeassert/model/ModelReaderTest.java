@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModelReaderTest {
+    private static final List<String> ZIP_CLASSES = asList("jdepend.framework.ExampleAbstractClass",
+            "jdepend.framework.ExampleConcreteClass", "jdepend.framework.ExampleConcreteClass$ExampleInnerClass",
+            "jdepend.framework.ExampleInterface", "jdepend.framework.ExamplePackageClass");
+
+    @Test
+    void parallel() {
+        final List<File> files = AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses();
+        final Model model = Model.from(files).read();
+        final Model parallel = Model.from(files).parallelism(4).read();
+        assertEquals(model.packages.keySet(), parallel.packages.keySet());
+        assertEquals(model.classes.keySet(), parallel.classes.keySet());
+        for (final CodeClass clazz : model.getClasses()) {
+            final CodeClass other = parallel.classes.get(clazz.getName());
+            assertEquals(clazz.isParsed(), other.isParsed(), clazz.getName());
+            assertEquals(clazz.getTotalSize(), other.getTotalSize(), clazz.getName());
+            assertEquals(names(clazz.usedClassCounts()), names(other.usedClassCounts()), clazz.getName());
+        }
+        for (final CodePackage pack : model.getPackages()) {
+            final CodePackage other = parallel.packages.get(pack.getName());
+            assertEquals(names(pack.usedPackageCounts()), names(other.usedPackageCounts()), pack.getName());
+        }
+    }
+
+    @Test
+    void archive() {
+        final Model archive = Model.from(Path.testResource("test.zip")).read();
+        assertEquals(ZIP_CLASSES, parsedNames(archive));
+        assertEquals("jdepend.framework.ExampleAbstractClass",
+                archive.classes.get("jdepend.framework.ExampleConcreteClass").getSuperClass());
+        assertEquals(ZIP_CLASSES, parsedNames(Model.from(Path.testResource("test.zip")).parallelism(2).read()));
+    }
+
+    @Test
+    void nestedArchive() throws IOException {
+        final File dir = new File("target/nested-archive");
+        dir.mkdirs();
+        final File fat = new File(dir, "fat.jar");
+        final File example = Path.testClass("ExampleConcreteClass");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(fat))) {
+            out.putNextEntry(new ZipEntry("BOOT-INF/classes/guru/nidi/codeassert/model/ExampleConcreteClass.class"));
+            out.write(Files.readAllBytes(example.toPath()));
+            out.putNextEntry(new ZipEntry("BOOT-INF/lib/test.jar"));
+            out.write(Files.readAllBytes(Path.testResource("test.zip").toPath()));
+            out.putNextEntry(new ZipEntry("application.properties"));
+            out.write("a=b".getBytes(StandardCharsets.UTF_8));
+        }
+        final String name = "guru.nidi.codeassert.model.ExampleConcreteClass";
+        final List<String> expected = new ArrayList<>(ZIP_CLASSES);
+        expected.add(0, name);
+
+        final Model nested = Model.from(fat).read();
+        assertEquals(expected, parsedNames(nested));
+        assertEquals(example.length(), nested.classes.get(name).getTotalSize());
+        assertEquals(expected, parsedNames(Model.from(fat).parallelism(3).read()));
+    }
+
+    private static List<String> parsedNames(Model model) {
+        return model.getClasses().stream()
+                .filter(CodeClass::isParsed).map(CodeClass::getName).sorted().collect(toList());
+    }
+
+    private static <T extends UsingElement<T>> Map<String, Integer> names(Map<T, Integer> counts) {
+        final Map<String, Integer> res = new HashMap<>();
+        counts.forEach((elem, count) -> res.put(elem.getName(), count));
+        return res;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.AnalyzerException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelSnapshotTest {
+    private static final String CONCRETE = "guru.nidi.codeassert.model.ExampleConcreteClass";
+    private final java.nio.file.Path file = new File("target/model.snapshot").toPath();
+
+    @Test
+    void writeAndRead() throws IOException {
+        final Model model = Model.from(Path.testClass("ExampleConcreteClass"), Path.testClass("ExampleAbstractClass"),
+                Path.testClass("ExampleInterface")).read();
+        model.writeSnapshot(file);
+        final Model read = Model.readSnapshot(file);
+        assertEquals(model.packages.keySet(), read.packages.keySet());
+        assertEquals(model.classes.keySet(), read.classes.keySet());
+
+        final CodeClass clazz = model.classes.get(CONCRETE);
+        final CodeClass readClazz = read.classes.get(CONCRETE);
+        assertTrue(readClazz.isParsed());
+        assertEquals(clazz.getSuperClass(), readClazz.getSuperClass());
+        assertEquals(clazz.getSourceFile(), readClazz.getSourceFile());
+        assertEquals(clazz.getTotalSize(), readClazz.getTotalSize());
+        assertEquals(names(clazz.getAnnotations()), names(readClazz.getAnnotations()));
+        assertEquals(members(clazz), members(readClazz));
+        assertEquals(names(clazz.usedClassCounts()), names(readClazz.usedClassCounts()));
+        assertEquals(names(clazz.usedByCounts()), names(readClazz.usedByCounts()));
+
+        final CodePackage pack = model.packages.get("guru.nidi.codeassert.model");
+        final CodePackage readPack = read.packages.get("guru.nidi.codeassert.model");
+        assertTrue(read.isOwnPackage(readPack));
+        assertEquals(names(pack.usedPackageCounts()), names(readPack.usedPackageCounts()));
+    }
+
+    @Test
+    void updateAfterRead() throws IOException {
+        final File a = new File("target/model-snapshot/A.class");
+        a.getParentFile().mkdirs();
+        Files.copy(Path.testClass("ExampleConcreteClass").toPath(), a.toPath(), REPLACE_EXISTING);
+        Model.from(a).read().writeSnapshot(file);
+        final Model read = Model.readSnapshot(file);
+
+        Files.copy(Path.testClass("ExampleInterface").toPath(), a.toPath(), REPLACE_EXISTING);
+        read.update(asList(a), Collections.emptyList());
+        assertTrue(read.classes.get("guru.nidi.codeassert.model.ExampleInterface").isParsed());
+        assertFalse(read.classes.containsKey(CONCRETE));
+    }
+
+    @Test
+    void corrupt() throws IOException {
+        Files.write(file, asList("corrupt"));
+        assertThrows(AnalyzerException.class, () -> Model.readSnapshot(file));
+    }
+
+    private static List<String> members(CodeClass clazz) {
+        final List<String> res = new ArrayList<>();
+        for (final MemberInfo member : clazz.getMembers()) {
+            res.add(member.getName() + member.descriptor + " " + member.getAccessFlags() + " " + member.getCodeSize());
+        }
+        return res;
+    }
+
+    private static Set<String> names(Collection<CodeClass> classes) {
+        final Set<String> res = new HashSet<>();
+        for (final CodeClass clazz : classes) {
+            res.add(clazz.getName());
+        }
+        return res;
+    }
+
+    private static <T extends UsingElement<T>> Map<String, Integer> names(Map<T, Integer> counts) {
+        final Map<String, Integer> res = new HashMap<>();
+        counts.forEach((elem, count) -> res.put(elem.getName(), count));
+        return res;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.AnalyzerException;
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelTest {
+    private static final byte[] NO_CLASS = new byte[]{1, 2, 3};
+    private static final String PACK = "guru.nidi.codeassert.model.";
+
+    @Test
+    void entryClassName() {
+        assertEquals("a.b.C", Model.entryClassName("a/b/C.class"));
+        assertEquals("a.b.C", Model.entryClassName("META-INF/versions/9/a/b/C.class"));
+        assertEquals("a.b.C", Model.entryClassName("BOOT-INF/classes/a/b/C.class"));
+        assertEquals("a.b.C", Model.entryClassName("WEB-INF/classes/a/b/C.class"));
+        assertEquals("C", Model.entryClassName("C.class"));
+    }
+
+    @Test
+    void ignoredEntriesAreNotParsed() throws IOException {
+        final File dir = new File("target/model-ignored-entries");
+        dir.mkdirs();
+        final File jar = new File(dir, "app.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (final String name : new String[]{"a/b/Bad.class", "META-INF/versions/9/a/Bad.class",
+                    "BOOT-INF/classes/a/Bad.class", "WEB-INF/classes/a/Bad.class"}) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(NO_CLASS);
+            }
+            out.putNextEntry(new ZipEntry("ab/ExampleConcreteClass.class"));
+            out.write(Files.readAllBytes(Path.testClass("ExampleConcreteClass").toPath()));
+        }
+        final Model model = Model.from(jar).ignoringPackages("a.").read();
+        assertTrue(model.classes.get("guru.nidi.codeassert.model.ExampleConcreteClass").isParsed());
+        assertThrows(AnalyzerException.class, () -> Model.from(jar).ignoringPackages("ab").read());
+    }
+
+    @Test
+    void ignoredDirectoriesAreNotParsed() throws IOException {
+        final File dir = new File("target/model-ignored-dirs");
+        new File(dir, "a/b").mkdirs();
+        new File(dir, "ab").mkdirs();
+        Files.write(new File(dir, "a/b/Bad.class").toPath(), NO_CLASS);
+        Files.write(new File(dir, "a/Bad.class").toPath(), NO_CLASS);
+        Files.write(new File(dir, "Bad.class").toPath(), NO_CLASS);
+        Files.copy(Path.testClass("ExampleConcreteClass").toPath(), new File(dir, "ab/Good.class").toPath(),
+                REPLACE_EXISTING);
+
+        final Model model = Model.from(dir).ignoringPackages("a.", "Bad").read();
+        assertTrue(model.classes.get("guru.nidi.codeassert.model.ExampleConcreteClass").isParsed());
+        assertThrows(AnalyzerException.class, () -> Model.from(dir).ignoringPackages("a.").read());
+        assertThrows(AnalyzerException.class, () -> Model.from(dir).ignoringPackages("a.b", "Bad").read());
+    }
+
+    @Test
+    void update() throws IOException {
+        final File dir = new File("target/model-update");
+        dir.mkdirs();
+        final File a = new File(dir, "A.class");
+        final File b = new File(dir, "B.class");
+        final File zip = new File(dir, "test.zip");
+        Files.copy(Path.testClass("ExampleConcreteClass").toPath(), a.toPath(), REPLACE_EXISTING);
+        Files.copy(Path.testClass("ExampleAbstractClass").toPath(), b.toPath(), REPLACE_EXISTING);
+        Files.copy(Path.testResource("test.zip").toPath(), zip.toPath(), REPLACE_EXISTING);
+        final Model model = Model.from(a, b).read();
+        final CodeClass abstractClass = model.classes.get(PACK + "ExampleAbstractClass");
+        assertEquals(asList(PACK + "ExampleConcreteClass"), names(abstractClass.usedBy()));
+
+        Files.copy(Path.testClass("ExampleInterface").toPath(), a.toPath(), REPLACE_EXISTING);
+        model.update(asList(a, zip), Collections.emptyList());
+        assertSameElements(Model.from(a, b, zip).read(), model);
+        assertEquals(asList(), names(abstractClass.usedBy()));
+        assertEquals(asList(PACK + "ExampleAbstractClass"),
+                names(model.classes.get(PACK + "ExampleInterface").usedBy()));
+
+        b.delete();
+        model.update(Collections.emptyList(), asList(b, zip));
+        assertSameElements(Model.from(a).read(), model);
+        assertEquals(asList(PACK + "ExampleInterface"), parsedNames(model));
+
+        Files.copy(Path.testClass("p5/package-info").toPath(), a.toPath(), REPLACE_EXISTING);
+        model.update(asList(a), Collections.emptyList());
+        assertSameElements(Model.from(a).read(), model);
+        assertEquals(asList(PACK + "p5.package-info"), parsedNames(model));
+        assertEquals(asList(PACK + "ExampleAnnotation", PACK + "p1.ExampleInnerAnnotation",
+                PACK + "p5.ClassRetentionAnnotation"), names(model.packages.get(PACK + "p5").getAnnotations()));
+    }
+
+    @Test
+    void ignoreAndMerge() {
+        final Model model = Model.from(AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses())
+                .ignoringPackages("java.lang", "guru.nidi.codeassert.model.p1")
+                .mergingPackages("guru.nidi.codeassert.model.p", "guru.nidi.codeassert")
+                .read();
+        assertTrue(model.getClasses().stream().noneMatch(c -> c.getName().startsWith("java.lang")
+                || c.getName().startsWith("guru.nidi.codeassert.model.p1")));
+        assertTrue(model.packages.containsKey("guru.nidi.codeassert.model.p"));
+        assertTrue(model.packages.containsKey("guru.nidi.codeassert"));
+        assertFalse(model.packages.containsKey("guru.nidi.codeassert.model"));
+
+        final Model archive = Model.from(Path.testResource("test.zip"))
+                .ignoringPackages("jdepend.framework.ExampleC").read();
+        assertEquals(asList("jdepend.framework.ExampleAbstractClass", "jdepend.framework.ExampleInterface",
+                "jdepend.framework.ExamplePackageClass"), parsedNames(archive));
+    }
+
+    private static void assertSameElements(Model expected, Model actual) {
+        assertEquals(expected.packages.keySet(), actual.packages.keySet());
+        assertEquals(expected.classes.keySet(), actual.classes.keySet());
+        assertEquals(parsedNames(expected), parsedNames(actual));
+    }
+
+    private static List<String> parsedNames(Model model) {
+        return names(model.getClasses().stream().filter(CodeClass::isParsed).collect(toList()));
+    }
+
+    private static List<String> names(Collection<? extends UsingElement<?>> elems) {
+        return elems.stream().map(UsingElement::getName).sorted().collect(toList());
+    }
+}
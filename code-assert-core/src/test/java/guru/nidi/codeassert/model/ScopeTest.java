@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import guru.nidi.codeassert.config.AnalyzerConfig;
+import guru.nidi.codeassert.config.Location;
+import guru.nidi.codeassert.config.LocationMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopeTest {
+    private static final String CONCRETE = "guru.nidi.codeassert.model.ExampleConcreteClass";
+
+    @Test
+    void matchingElements() {
+        final Model model = Model.from(AnalyzerConfig.maven().mainAndTest("guru/nidi/codeassert/model").getClasses())
+                .read();
+        for (final String pattern : asList("*", "guru.nidi.codeassert.model.*", "guru.nidi.codeassert.model",
+                "*.p2", "java.lang.String", "guru.nidi.codeassert.model.Example*", "+A*", "java+")) {
+            final LocationMatcher matcher = new LocationMatcher(Location.of(pattern));
+            for (final Scope<?> scope : asList(Scope.packages(model), Scope.classes(model))) {
+                final List<Object> expected = new ArrayList<>();
+                for (final UsingElement<?> elem : scope) {
+                    if (elem.isMatchedBy(matcher)) {
+                        expected.add(elem);
+                    }
+                }
+                assertEquals(expected, scope.matchingElements(matcher), pattern);
+                assertSame(scope.matchingElements(matcher), scope.matchingElements(matcher));
+            }
+        }
+    }
+
+    @Test
+    void matchingElementsAfterUpdate() throws IOException {
+        final File dir = new File("target/model-matching");
+        dir.mkdirs();
+        final File a = new File(dir, "A.class");
+        Files.copy(Path.testClass("ExampleConcreteClass").toPath(), a.toPath(), REPLACE_EXISTING);
+        final Model model = Model.from(a).read();
+        final Scope<CodeClass> classes = Scope.classes(model);
+        final LocationMatcher examples = new LocationMatcher(Location.of("guru.nidi.codeassert.model.Example*"));
+        assertTrue(names(classes.matchingElements(examples)).contains(CONCRETE));
+
+        Files.copy(Path.testClass("ExampleAbstractClass").toPath(), a.toPath(), REPLACE_EXISTING);
+        model.update(asList(a), Collections.emptyList());
+        assertEquals(names(model.getClasses().stream().filter(c -> c.isMatchedBy(examples)).collect(toList())),
+                names(classes.matchingElements(examples)));
+        assertFalse(names(classes.matchingElements(examples)).contains(CONCRETE));
+    }
+
+    private static List<String> names(Collection<CodeClass> classes) {
+        return classes.stream().map(CodeClass::getName).sorted().collect(toList());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2015 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.codeassert.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageCountsTest {
+    @Test
+    void elementsWithoutId() {
+        final UsageCounts<CodeClass> counts = new UsageCounts<>();
+        final CodeClass a = new CodeClass("a.A");
+        assertEquals(-1, a.getId());
+        counts.add(a);
+        counts.add(a, 2);
+        assertEquals(3, counts.count(a));
+        assertEquals(3, counts.count(new CodeClass("a.A")));
+        assertTrue(counts.contains(new CodeClass("a.A")));
+        assertFalse(counts.contains(new CodeClass("a.B")));
+        assertFalse(counts.contains("a.A"));
+    }
+
+    @Test
+    void elementsOfDifferentModels() {
+        final Model model = new Model();
+        final CodeClass b = model.getOrCreateClass("a.B");
+        final CodeClass a = model.getOrCreateClass("a.A");
+        assertEquals(1, a.getId());
+        final UsageCounts<CodeClass> counts = new UsageCounts<>();
+        counts.add(a, 2);
+        counts.add(b);
+        assertEquals(2, counts.count(new CodeClass("a.A")));
+        assertEquals(2, counts.count(new Model().getOrCreateClass("a.A")));
+        assertEquals(2, counts.remove(new CodeClass("a.A")));
+        assertEquals(0, counts.count(a));
+        assertEquals(1, counts.size());
+    }
+
+    @Test
+    void insertionOrder() {
+        final UsageCounts<CodePackage> counts = new UsageCounts<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final String name = "p" + (i * 37 % 50);
+            counts.add(new CodePackage(name), i + 1);
+            expected.add(name);
+        }
+        counts.add(new CodePackage("p0"));
+        assertEquals(2, counts.remove(new CodePackage("p0")));
+        assertEquals(0, counts.remove(new CodePackage("p0")));
+        expected.remove("p0");
+        counts.remove(new CodePackage("p13"));
+        expected.remove("p13");
+        counts.add(new CodePackage("p0"));
+        expected.add("p0");
+        final List<String> actual = new ArrayList<>();
+        for (final CodePackage pack : counts.asSet()) {
+            actual.add(pack.getName());
+        }
+        assertEquals(expected, actual);
+        assertEquals(49, counts.size());
+        assertEquals(2, counts.count(new CodePackage("p37")));
+        assertEquals(1, counts.count(new CodePackage("p0")));
+    }
+
+    @Test
+    void mapView() {
+        final UsageCounts<CodePackage> counts = new UsageCounts<>();
+        final Map<CodePackage, Integer> view = counts.asMap();
+        for (int i = 0; i < 20; i++) {
+            counts.add(new CodePackage("p" + i), i + 1);
+        }
+        final Map<CodePackage, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            expected.put(new CodePackage("p" + i), i + 1);
+        }
+        assertEquals(expected, view);
+        assertEquals(Integer.valueOf(5), view.get(new CodePackage("p4")));
+        assertNull(view.get(new CodePackage("p20")));
+        assertThrows(UnsupportedOperationException.class, () -> view.put(new CodePackage("x"), 1));
+    }
+
+    @Test
+    void hashCodesSharingLowBits() {
+        final Set<Integer> slots = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            slots.add(UsageCounts.spread(i << 16) & 63);
+        }
+        assertEquals(64, slots.size());
+
+        final UsageCounts<CodePackage> counts = new UsageCounts<>();
+        for (int i = 0; i < 1000; i++) {
+            counts.add(sameLowBits(i), i + 1);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i + 1, counts.remove(sameLowBits(i)));
+        }
+        assertEquals(500, counts.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? 0 : i + 1, counts.count(sameLowBits(i)));
+        }
+    }
+
+    private static CodePackage sameLowBits(int i) {
+        return new CodePackage("p" + i) {
+            @Override
+            public int hashCode() {
+                return i << 16;
+            }
+        };
+    }
+}